@@ -0,0 +1,25 @@
+package com.example.java_test_poc.controller;
+
+import com.example.java_test_poc.dto.SlowQueryRecord;
+import com.example.java_test_poc.tracing.SlowQueryTracer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/diagnostics")
+public class DiagnosticsController {
+    private final SlowQueryTracer slowQueryTracer;
+
+    @Autowired
+    public DiagnosticsController(SlowQueryTracer slowQueryTracer) {
+        this.slowQueryTracer = slowQueryTracer;
+    }
+
+    @GetMapping("/slow-queries")
+    public ResponseEntity<List<SlowQueryRecord>> getSlowQueries() {
+        return ResponseEntity.ok(slowQueryTracer.getRecords());
+    }
+}
@@ -2,9 +2,11 @@ package com.example.java_test_poc.controller;
 
 import com.example.java_test_poc.dto.UserRequest;
 import com.example.java_test_poc.dto.UserResponse;
+import com.example.java_test_poc.idempotency.IdempotencyService;
 import com.example.java_test_poc.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -14,21 +16,31 @@ import java.util.List;
 @RestController
 @RequestMapping("/users")
 public class UserController {
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final long MAX_PAGE_OFFSET = 10_000;
+    private static final int MAX_IDS_PER_REQUEST = 500;
+
     private final UserService userService;
+    private final IdempotencyService idempotencyService;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, IdempotencyService idempotencyService) {
         this.userService = userService;
+        this.idempotencyService = idempotencyService;
     }
 
     @PostMapping
-    public ResponseEntity<UserResponse> createUser(@Valid @RequestBody UserRequest userRequest) {
-        try {
-            UserResponse userResponse = userService.createUser(userRequest);
-            return ResponseEntity.status(HttpStatus.CREATED).body(userResponse);
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.status(HttpStatus.CONFLICT).build();
-        }
+    public ResponseEntity<UserResponse> createUser(
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody UserRequest userRequest) {
+        return idempotencyService.execute(idempotencyKey, "POST /users", userRequest, UserResponse.class, () -> {
+            try {
+                UserResponse userResponse = userService.createUser(userRequest);
+                return ResponseEntity.status(HttpStatus.CREATED).body(userResponse);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            }
+        });
     }
 
     @GetMapping
@@ -37,6 +49,26 @@ public class UserController {
         return ResponseEntity.ok(users);
     }
 
+    @GetMapping(params = {"page", "size"})
+    public ResponseEntity<List<UserResponse>> getUsersPage(@RequestParam int page, @RequestParam int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE || (long) page * size > MAX_PAGE_OFFSET) {
+            return ResponseEntity.badRequest().build();
+        }
+        Page<UserResponse> users = userService.getUsers(page, size);
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(users.getTotalElements()))
+                .body(users.getContent());
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<UserResponse>> getUsersByIds(@RequestParam List<Long> ids) {
+        if (ids.size() > MAX_IDS_PER_REQUEST) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<UserResponse> users = userService.getUsersByIds(ids);
+        return ResponseEntity.ok(users);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<UserResponse> getUserById(@PathVariable Long id) {
         return userService.getUserById(id)
@@ -52,14 +84,18 @@ public class UserController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<UserResponse> updateUser(@PathVariable Long id, @Valid @RequestBody UserRequest userRequest) {
-        try {
-            return userService.updateUser(id, userRequest)
-                    .map(ResponseEntity::ok)
-                    .orElse(ResponseEntity.notFound().build());
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.status(HttpStatus.CONFLICT).build();
-        }
+    public ResponseEntity<UserResponse> updateUser(
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @PathVariable Long id, @Valid @RequestBody UserRequest userRequest) {
+        return idempotencyService.execute(idempotencyKey, "PUT /users/" + id, userRequest, UserResponse.class, () -> {
+            try {
+                return userService.updateUser(id, userRequest)
+                        .map(ResponseEntity::ok)
+                        .orElse(ResponseEntity.notFound().build());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            }
+        });
     }
 
     @DeleteMapping("/{id}")
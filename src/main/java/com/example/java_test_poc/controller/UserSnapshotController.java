@@ -0,0 +1,166 @@
+package com.example.java_test_poc.controller;
+
+import com.example.java_test_poc.snapshot.UserSnapshot;
+import com.example.java_test_poc.snapshot.UserSnapshotStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+@RestController
+@ConditionalOnProperty(name = "snapshot.enabled", havingValue = "true", matchIfMissing = true)
+public class UserSnapshotController {
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final UserSnapshotStore snapshotStore;
+
+    @Autowired
+    public UserSnapshotController(UserSnapshotStore snapshotStore) {
+        this.snapshotStore = snapshotStore;
+    }
+
+    @GetMapping("/users/snapshot")
+    public void getSnapshot(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<UserSnapshot> latest = snapshotStore.getLatest();
+        if (latest.isEmpty()) {
+            unavailable(response);
+            return;
+        }
+
+        UserSnapshot snapshot = latest.get();
+        long size = snapshot.getSize();
+        response.setHeader(HttpHeaders.ETAG, snapshot.getEtag());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (etagMatches(request.getHeader(HttpHeaders.IF_NONE_MATCH), snapshot.getEtag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = size - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(snapshot.getEtag()))) {
+            long[] bounds = parseRange(range, size);
+            if (bounds != null && bounds.length == 0) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (bounds != null) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+        }
+
+        response.setContentType("application/gzip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + snapshot.getDownloadName() + "\"");
+        response.setContentLengthLong(end - start + 1);
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, snapshot.getPath().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        FileChannel file;
+        try {
+            file = FileChannel.open(snapshot.getPath(), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            response.reset();
+            unavailable(response);
+            return;
+        }
+
+        try (file) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = end - start + 1;
+            while (remaining > 0) {
+                long transferred = file.transferTo(position, remaining, out);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+
+    private static void unavailable(HttpServletResponse response) {
+        response.setHeader(HttpHeaders.RETRY_AFTER, "60");
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+    }
+
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.contains(",")) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                if (last.isEmpty()) {
+                    return null;
+                }
+                long suffixLength = Long.parseLong(last);
+                if (suffixLength <= 0 || size == 0) {
+                    return new long[0];
+                }
+                return new long[]{Math.max(0, size - suffixLength), size - 1};
+            }
+
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? size - 1 : Long.parseLong(last);
+            if (end < start) {
+                return null;
+            }
+            if (start >= size) {
+                return new long[0];
+            }
+            return new long[]{start, Math.min(end, size - 1)};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.java_test_poc.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public class SlowQueryRecord {
+    private final Instant timestamp;
+    private final String sql;
+    private final List<String> parameters;
+    private final double elapsedMillis;
+    private final String caller;
+    private final boolean sampled;
+
+    public SlowQueryRecord(Instant timestamp, String sql, List<String> parameters,
+                           double elapsedMillis, String caller, boolean sampled) {
+        this.timestamp = timestamp;
+        this.sql = sql;
+        this.parameters = parameters;
+        this.elapsedMillis = elapsedMillis;
+        this.caller = caller;
+        this.sampled = sampled;
+    }
+
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public List<String> getParameters() {
+        return parameters;
+    }
+
+    public double getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public String getCaller() {
+        return caller;
+    }
+
+    public boolean isSampled() {
+        return sampled;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.java_test_poc.idempotency;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+
+@Configuration
+public class IdempotencyConfig {
+
+    @Bean
+    public Clock idempotencyClock() {
+        return Clock.systemUTC();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "idempotency.store", havingValue = "memory", matchIfMissing = true)
+    public IdempotencyStore inMemoryIdempotencyStore(@Value("${idempotency.ttl-seconds:86400}") long ttlSeconds,
+                                                     @Value("${idempotency.max-entries:10000}") int maxEntries,
+                                                     Clock idempotencyClock) {
+        return new InMemoryIdempotencyStore(Duration.ofSeconds(ttlSeconds), maxEntries, idempotencyClock);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "idempotency.store", havingValue = "jdbc")
+    public IdempotencyStore jdbcIdempotencyStore(DataSource dataSource,
+                                                 @Value("${idempotency.ttl-seconds:86400}") long ttlSeconds,
+                                                 Clock idempotencyClock) {
+        return new JdbcIdempotencyStore(dataSource, Duration.ofSeconds(ttlSeconds), idempotencyClock);
+    }
+}
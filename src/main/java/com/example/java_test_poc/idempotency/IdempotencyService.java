@@ -0,0 +1,195 @@
+package com.example.java_test_poc.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Stores the first response produced for an {@code Idempotency-Key} and replays it for retries
+ * with the same key. A request claims the key in the store before running, so retries that arrive
+ * while it is still running wait for it instead of executing again: on the same instance through
+ * an in-process future, on other instances by polling the store. A claim older than the wait
+ * timeout is treated as abandoned. Server errors are not stored, so they can be retried.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long POLL_INTERVAL_MILLIS = 50;
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+    private final long waitTimeoutMillis;
+    private final Clock clock;
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    public IdempotencyService(IdempotencyStore store, ObjectMapper objectMapper,
+                              @Value("${idempotency.wait-timeout-ms:30000}") long waitTimeoutMillis,
+                              Clock idempotencyClock) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.waitTimeoutMillis = waitTimeoutMillis;
+        this.clock = idempotencyClock;
+    }
+
+    public <T> ResponseEntity<T> execute(String key, String scope, Object request, Class<T> bodyType,
+                                         Supplier<ResponseEntity<T>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        String storeKey = scope + ":" + key;
+        String fingerprint = fingerprint(request);
+
+        while (true) {
+            Optional<StoredResponse> stored = store.find(storeKey);
+            if (stored.isPresent() && !stored.get().isPending()) {
+                return replay(stored.get(), fingerprint, bodyType);
+            }
+
+            CompletableFuture<StoredResponse> created = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> existing = inFlight.putIfAbsent(storeKey, created);
+            if (existing == null) {
+                return runAndStore(storeKey, fingerprint, bodyType, created, action);
+            }
+
+            StoredResponse response;
+            try {
+                response = existing.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+            } catch (ExecutionException e) {
+                response = null;
+            }
+            if (response != null) {
+                return replay(response, fingerprint, bodyType);
+            }
+        }
+    }
+
+    private <T> ResponseEntity<T> runAndStore(String storeKey, String fingerprint, Class<T> bodyType,
+                                              CompletableFuture<StoredResponse> created,
+                                              Supplier<ResponseEntity<T>> action) {
+        StoredResponse stored = null;
+        try {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitTimeoutMillis);
+            while (true) {
+                long now = clock.millis();
+                if (store.claim(storeKey, StoredResponse.pending(fingerprint, now), now - waitTimeoutMillis)) {
+                    break;
+                }
+                Optional<StoredResponse> current = store.find(storeKey);
+                if (current.isPresent() && !current.get().getFingerprint().equals(fingerprint)) {
+                    return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).build();
+                }
+                if (current.isPresent() && !current.get().isPending()) {
+                    stored = current.get();
+                    return replay(stored, fingerprint, bodyType);
+                }
+                if (System.nanoTime() >= deadline) {
+                    return ResponseEntity.status(HttpStatus.CONFLICT).build();
+                }
+                try {
+                    Thread.sleep(POLL_INTERVAL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+                }
+            }
+
+            ResponseEntity<T> response;
+            try {
+                response = action.get();
+            } catch (RuntimeException | Error e) {
+                store.release(storeKey);
+                throw e;
+            }
+            if (response.getStatusCode().is5xxServerError()) {
+                store.release(storeKey);
+                return response;
+            }
+
+            stored = new StoredResponse(fingerprint, response.getStatusCode().value(),
+                    writeBody(response.getBody()), clock.millis());
+            try {
+                store.save(storeKey, stored);
+            } catch (RuntimeException e) {
+                log.warn("Failed to store idempotent response for key {}", storeKey, e);
+            }
+            return response;
+        } finally {
+            created.complete(stored);
+            inFlight.remove(storeKey, created);
+        }
+    }
+
+    private <T> ResponseEntity<T> replay(StoredResponse stored, String fingerprint, Class<T> bodyType) {
+        if (!stored.getFingerprint().equals(fingerprint)) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).build();
+        }
+        return ResponseEntity.status(stored.getStatus())
+                .header(REPLAYED_HEADER, "true")
+                .body(readBody(stored.getBody(), bodyType));
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Failed to fingerprint request", e);
+        }
+    }
+
+    private String writeBody(Object body) {
+        if (body == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize response body", e);
+        }
+    }
+
+    private <T> T readBody(String body, Class<T> bodyType) {
+        if (body == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(body, bodyType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to deserialize stored response body", e);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.java_test_poc.idempotency;
+
+import java.util.Optional;
+
+public interface IdempotencyStore {
+    Optional<StoredResponse> find(String key);
+    boolean claim(String key, StoredResponse pending, long abandonedBeforeMillis);
+    void save(String key, StoredResponse response);
+    void release(String key);
+}
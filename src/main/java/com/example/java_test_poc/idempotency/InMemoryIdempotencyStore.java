@@ -0,0 +1,87 @@
+package com.example.java_test_poc.idempotency;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Clock clock;
+    private final LinkedHashMap<String, StoredResponse> entries = new LinkedHashMap<>();
+
+    public InMemoryIdempotencyStore(Duration ttl, int maxEntries, Clock clock) {
+        this.ttlMillis = ttl.toMillis();
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    @Override
+    public synchronized Optional<StoredResponse> find(String key) {
+        StoredResponse response = entries.get(key);
+        if (response == null) {
+            return Optional.empty();
+        }
+        if (isExpired(response, clock.millis())) {
+            entries.remove(key);
+            return Optional.empty();
+        }
+        return Optional.of(response);
+    }
+
+    @Override
+    public synchronized boolean claim(String key, StoredResponse pending, long abandonedBeforeMillis) {
+        Optional<StoredResponse> existing = find(key);
+        if (existing.isPresent()
+                && !(existing.get().isPending() && existing.get().getCreatedAtMillis() <= abandonedBeforeMillis)) {
+            return false;
+        }
+        put(key, pending);
+        return true;
+    }
+
+    @Override
+    public synchronized void save(String key, StoredResponse response) {
+        Optional<StoredResponse> existing = find(key);
+        if (existing.isEmpty() || existing.get().isPending()) {
+            put(key, response);
+        }
+    }
+
+    @Override
+    public synchronized void release(String key) {
+        StoredResponse existing = entries.get(key);
+        if (existing != null && existing.isPending()) {
+            entries.remove(key);
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private void put(String key, StoredResponse response) {
+        long now = clock.millis();
+        Iterator<StoredResponse> oldest = entries.values().iterator();
+        while (oldest.hasNext() && isExpired(oldest.next(), now)) {
+            oldest.remove();
+        }
+
+        entries.remove(key);
+        entries.put(key, response);
+
+        Iterator<Map.Entry<String, StoredResponse>> overflow = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && overflow.hasNext()) {
+            overflow.next();
+            overflow.remove();
+        }
+    }
+
+    private boolean isExpired(StoredResponse response, long now) {
+        return now - response.getCreatedAtMillis() >= ttlMillis;
+    }
+}
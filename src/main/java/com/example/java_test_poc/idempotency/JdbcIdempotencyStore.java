@@ -0,0 +1,96 @@
+package com.example.java_test_poc.idempotency;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps idempotency keys in the {@code idempotency_keys} table so every instance sees the same
+ * keys. A request claims its key by inserting a pending row, and the primary key makes that claim
+ * exclusive across instances; the row is then completed with the response or deleted so the key
+ * can be retried. A completed row is never overwritten until it expires.
+ */
+public class JdbcIdempotencyStore implements IdempotencyStore {
+
+    private static final int PURGE_EVERY_CLAIMS = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final AtomicInteger claimsSincePurge = new AtomicInteger();
+
+    public JdbcIdempotencyStore(DataSource dataSource, Duration ttl, Clock clock) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        new ResourceDatabasePopulator(new ClassPathResource("idempotency/schema.sql")).execute(dataSource);
+    }
+
+    @Override
+    public Optional<StoredResponse> find(String key) {
+        List<StoredResponse> responses = jdbcTemplate.query(
+                "select fingerprint, status, body, created_at from idempotency_keys where idempotency_key = ? and created_at > ?",
+                (rs, rowNum) -> new StoredResponse(
+                        rs.getString("fingerprint"),
+                        rs.getInt("status"),
+                        rs.getString("body"),
+                        rs.getLong("created_at")),
+                key, clock.millis() - ttlMillis);
+        return responses.stream().findFirst();
+    }
+
+    @Override
+    public boolean claim(String key, StoredResponse pending, long abandonedBeforeMillis) {
+        if (claimsSincePurge.incrementAndGet() >= PURGE_EVERY_CLAIMS) {
+            claimsSincePurge.set(0);
+            jdbcTemplate.update("delete from idempotency_keys where created_at <= ?", clock.millis() - ttlMillis);
+        }
+
+        if (insertIfAbsent(key, pending)) {
+            return true;
+        }
+        int taken = jdbcTemplate.update(
+                "update idempotency_keys set fingerprint = ?, status = ?, body = null, created_at = ? "
+                        + "where idempotency_key = ? and (created_at <= ? or (status = ? and created_at <= ?))",
+                pending.getFingerprint(), StoredResponse.PENDING_STATUS, pending.getCreatedAtMillis(),
+                key, clock.millis() - ttlMillis, StoredResponse.PENDING_STATUS, abandonedBeforeMillis);
+        return taken == 1;
+    }
+
+    @Override
+    public void save(String key, StoredResponse response) {
+        int completed = jdbcTemplate.update(
+                "update idempotency_keys set fingerprint = ?, status = ?, body = ?, created_at = ? "
+                        + "where idempotency_key = ? and (status = ? or created_at <= ?)",
+                response.getFingerprint(), response.getStatus(), response.getBody(), response.getCreatedAtMillis(),
+                key, StoredResponse.PENDING_STATUS, clock.millis() - ttlMillis);
+        if (completed == 0) {
+            insertIfAbsent(key, response);
+        }
+    }
+
+    @Override
+    public void release(String key) {
+        jdbcTemplate.update("delete from idempotency_keys where idempotency_key = ? and status = ?",
+                key, StoredResponse.PENDING_STATUS);
+    }
+
+    private boolean insertIfAbsent(String key, StoredResponse response) {
+        try {
+            jdbcTemplate.update(
+                    "insert into idempotency_keys (idempotency_key, fingerprint, status, body, created_at) values (?, ?, ?, ?, ?)",
+                    key, response.getFingerprint(), response.getStatus(), response.getBody(), response.getCreatedAtMillis());
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.java_test_poc.idempotency;
+
+public class StoredResponse {
+    static final int PENDING_STATUS = 0;
+
+    private final String fingerprint;
+    private final int status;
+    private final String body;
+    private final long createdAtMillis;
+
+    public StoredResponse(String fingerprint, int status, String body, long createdAtMillis) {
+        this.fingerprint = fingerprint;
+        this.status = status;
+        this.body = body;
+        this.createdAtMillis = createdAtMillis;
+    }
+
+    public static StoredResponse pending(String fingerprint, long createdAtMillis) {
+        return new StoredResponse(fingerprint, PENDING_STATUS, null, createdAtMillis);
+    }
+
+    public boolean isPending() {
+        return status == PENDING_STATUS;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+}
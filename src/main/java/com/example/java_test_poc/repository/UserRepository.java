@@ -1,13 +1,16 @@
 package com.example.java_test_poc.repository;
 
 import com.example.java_test_poc.entity.UserEntity;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<UserEntity, Long> {
     Optional<UserEntity> findByEmail(String email);
     boolean existsByEmail(String email);
+    List<UserEntity> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
\ No newline at end of file
@@ -0,0 +1,147 @@
+package com.example.java_test_poc.service;
+
+import com.example.java_test_poc.entity.UserEntity;
+import com.example.java_test_poc.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Coalesces concurrent id lookups that arrive within a short window into a single
+ * {@code IN} query, and lets identical in-flight id or email lookups share one result.
+ * The first caller of a batch waits for the window and then runs the query on its own
+ * thread; later callers just wait for their future.
+ */
+@Component
+public class UserLookupBatcher {
+
+    private final UserRepository userRepository;
+    private final long batchWindowNanos;
+    private final int maxBatchSize;
+
+    private final Object lock = new Object();
+    private final Map<Long, CompletableFuture<Optional<UserEntity>>> idsInFlight = new HashMap<>();
+    private final Map<String, CompletableFuture<Optional<UserEntity>>> emailsInFlight = new ConcurrentHashMap<>();
+    private Batch openBatch;
+
+    @Autowired
+    public UserLookupBatcher(UserRepository userRepository,
+                             @Value("${users.lookup.batch-window-ms:2}") long batchWindowMillis,
+                             @Value("${users.lookup.max-batch-size:100}") int maxBatchSize) {
+        this.userRepository = userRepository;
+        this.batchWindowNanos = TimeUnit.MILLISECONDS.toNanos(batchWindowMillis);
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public Optional<UserEntity> findById(Long id) {
+        CompletableFuture<Optional<UserEntity>> result;
+        Batch batchToRun = null;
+        Batch leaderBatch = null;
+
+        synchronized (lock) {
+            result = idsInFlight.get(id);
+            if (result == null) {
+                result = new CompletableFuture<>();
+                idsInFlight.put(id, result);
+                if (openBatch == null) {
+                    openBatch = new Batch();
+                    leaderBatch = openBatch;
+                }
+                openBatch.futures.put(id, result);
+                if (openBatch.futures.size() >= maxBatchSize) {
+                    batchToRun = openBatch;
+                    openBatch = null;
+                }
+            }
+        }
+
+        if (batchToRun != null) {
+            run(batchToRun);
+        } else if (leaderBatch != null) {
+            if (batchWindowNanos > 0) {
+                LockSupport.parkNanos(batchWindowNanos);
+            }
+            boolean stillOpen;
+            synchronized (lock) {
+                stillOpen = openBatch == leaderBatch;
+                if (stillOpen) {
+                    openBatch = null;
+                }
+            }
+            if (stillOpen) {
+                run(leaderBatch);
+            }
+        }
+
+        return await(result);
+    }
+
+    public Optional<UserEntity> findByEmail(String email) {
+        CompletableFuture<Optional<UserEntity>> created = new CompletableFuture<>();
+        CompletableFuture<Optional<UserEntity>> existing = emailsInFlight.putIfAbsent(email, created);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            created.complete(userRepository.findByEmail(email));
+        } catch (Throwable e) {
+            created.completeExceptionally(e);
+        } finally {
+            emailsInFlight.remove(email, created);
+        }
+        return await(created);
+    }
+
+    private void run(Batch batch) {
+        Map<Long, CompletableFuture<Optional<UserEntity>>> futures = batch.futures;
+        try {
+            if (futures.size() == 1) {
+                Map.Entry<Long, CompletableFuture<Optional<UserEntity>>> entry = futures.entrySet().iterator().next();
+                entry.getValue().complete(userRepository.findById(entry.getKey()));
+            } else {
+                Map<Long, UserEntity> found = new HashMap<>();
+                for (UserEntity user : userRepository.findAllById(new ArrayList<>(futures.keySet()))) {
+                    found.put(user.getId(), user);
+                }
+                futures.forEach((id, future) -> future.complete(Optional.ofNullable(found.get(id))));
+            }
+        } catch (Throwable e) {
+            futures.values().forEach(future -> future.completeExceptionally(e));
+        } finally {
+            synchronized (lock) {
+                futures.forEach(idsInFlight::remove);
+            }
+        }
+    }
+
+    private static Optional<UserEntity> await(CompletableFuture<Optional<UserEntity>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Batch {
+        private final Map<Long, CompletableFuture<Optional<UserEntity>>> futures = new LinkedHashMap<>();
+    }
+}
@@ -5,20 +5,29 @@ import com.example.java_test_poc.dto.UserResponse;
 import com.example.java_test_poc.entity.UserEntity;
 import com.example.java_test_poc.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class UserService {
 
     private final UserRepository userRepository;
+    private final UserLookupBatcher userLookupBatcher;
 
     @Autowired
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, UserLookupBatcher userLookupBatcher) {
         this.userRepository = userRepository;
+        this.userLookupBatcher = userLookupBatcher;
     }
 
     public UserResponse createUser(UserRequest userRequest) {
@@ -38,13 +47,30 @@ public class UserService {
                 .collect(Collectors.toList());
     }
 
+    public Page<UserResponse> getUsers(int page, int size) {
+        return userRepository.findAll(PageRequest.of(page, size, Sort.by("id")))
+                .map(user -> new UserResponse(user.getId(), user.getName(), user.getEmail()));
+    }
+
+    public List<UserResponse> getUsersByIds(List<Long> ids) {
+        Map<Long, UserEntity> usersById = userRepository.findAllById(new LinkedHashSet<>(ids)).stream()
+                .collect(Collectors.toMap(UserEntity::getId, Function.identity()));
+
+        return ids.stream()
+                .distinct()
+                .map(usersById::get)
+                .filter(Objects::nonNull)
+                .map(user -> new UserResponse(user.getId(), user.getName(), user.getEmail()))
+                .collect(Collectors.toList());
+    }
+
     public Optional<UserResponse> getUserById(Long id) {
-        return userRepository.findById(id)
+        return userLookupBatcher.findById(id)
                 .map(user -> new UserResponse(user.getId(), user.getName(), user.getEmail()));
     }
 
     public Optional<UserResponse> getUserByEmail(String email) {
-        return userRepository.findByEmail(email)
+        return userLookupBatcher.findByEmail(email)
                 .map(user -> new UserResponse(user.getId(), user.getName(), user.getEmail()));
     }
 
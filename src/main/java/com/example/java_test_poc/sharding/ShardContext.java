@@ -0,0 +1,29 @@
+package com.example.java_test_poc.sharding;
+
+import java.util.function.Supplier;
+
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {}
+
+    public static int current() {
+        Integer shard = CURRENT.get();
+        return shard != null ? shard : 0;
+    }
+
+    public static <T> T callOn(int shard, Supplier<T> action) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
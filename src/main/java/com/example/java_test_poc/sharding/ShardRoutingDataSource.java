@@ -0,0 +1,47 @@
+package com.example.java_test_poc.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class ShardRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private final List<DataSource> shards;
+
+    public ShardRoutingDataSource(List<DataSource> shards) {
+        this.shards = List.copyOf(shards);
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < this.shards.size(); i++) {
+            targets.put(i, this.shards.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(this.shards.get(0));
+        setLenientFallback(false);
+    }
+
+    public List<DataSource> getShards() {
+        return shards;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+
+    @Override
+    public void close() {
+        for (DataSource shard : shards) {
+            if (shard instanceof Closeable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    logger.warn("Failed to close shard data source", e);
+                }
+            }
+        }
+    }
+}
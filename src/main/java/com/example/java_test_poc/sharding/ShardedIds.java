@@ -0,0 +1,27 @@
+package com.example.java_test_poc.sharding;
+
+/**
+ * Each shard's {@code users.id} identity starts at {@code MAX_SHARDS + shard} and steps by
+ * {@link #MAX_SHARDS}, so the low {@link #SHARD_BITS} bits of every id carry the shard the row
+ * lives in and a lookup by id can be routed without consulting any directory.
+ */
+public final class ShardedIds {
+
+    public static final int SHARD_BITS = 8;
+    public static final int MAX_SHARDS = 1 << SHARD_BITS;
+
+    private static final long SHARD_MASK = MAX_SHARDS - 1;
+
+    private ShardedIds() {}
+
+    public static long firstId(int shard) {
+        if (shard < 0 || shard >= MAX_SHARDS) {
+            throw new IllegalArgumentException("Shard must be between 0 and " + (MAX_SHARDS - 1));
+        }
+        return MAX_SHARDS + shard;
+    }
+
+    public static int shardOf(long id) {
+        return (int) (id & SHARD_MASK);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.java_test_poc.sharding;
+
+import com.example.java_test_poc.repository.UserRepository;
+import com.example.java_test_poc.tracing.SlowQueryTracer;
+import com.example.java_test_poc.tracing.TracingDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+@ConditionalOnProperty(prefix = "sharding", name = "enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Bean
+    public ShardRoutingDataSource dataSource(ShardingProperties properties) throws IOException {
+        if (properties.getShards().isEmpty() || properties.getShards().size() > ShardedIds.MAX_SHARDS) {
+            throw new IllegalStateException("sharding.shards must list between 1 and " + ShardedIds.MAX_SHARDS + " data sources");
+        }
+
+        String usersSchema = new ClassPathResource("sharding/users-schema.sql").getContentAsString(StandardCharsets.UTF_8);
+        List<DataSource> shards = new ArrayList<>();
+        for (ShardingProperties.Shard shard : properties.getShards()) {
+            DataSource dataSource = DataSourceBuilder.create()
+                    .url(shard.getUrl())
+                    .username(shard.getUsername())
+                    .password(shard.getPassword())
+                    .build();
+            String schema = usersSchema
+                    .replace("${first_id}", String.valueOf(ShardedIds.firstId(shards.size())))
+                    .replace("${id_step}", String.valueOf(ShardedIds.MAX_SHARDS));
+            new ResourceDatabasePopulator(new ByteArrayResource(schema.getBytes(StandardCharsets.UTF_8))).execute(dataSource);
+            shards.add(dataSource);
+        }
+        new ResourceDatabasePopulator(new ClassPathResource("sharding/directory-schema.sql")).execute(shards.get(0));
+
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    public UserShardDirectory userShardDirectory(DataSource dataSource, SlowQueryTracer tracer) throws SQLException {
+        DataSource directoryDataSource = dataSource.unwrap(ShardRoutingDataSource.class).getShards().get(0);
+        if (dataSource instanceof TracingDataSource) {
+            directoryDataSource = new TracingDataSource(directoryDataSource, tracer);
+        }
+        return new UserShardDirectory(directoryDataSource);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public UserShardingInterceptor userShardingInterceptor(ShardingProperties properties, UserShardDirectory userShardDirectory,
+                                                           ObjectProvider<UserRepository> userRepository) {
+        ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("shard-worker-", 0).factory());
+        return new UserShardingInterceptor(properties.getShards().size(), userShardDirectory, executor, userRepository);
+    }
+
+    @Bean
+    public static BeanPostProcessor userRepositorySharding(ObjectProvider<UserShardingInterceptor> interceptor) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean
+                        && UserRepository.class.equals(factoryBean.getObjectType())) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(0, interceptor.getObject())));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.java_test_poc.sharding;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Optional;
+
+public class UserShardDirectory {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserShardDirectory(DataSource directoryDataSource) {
+        this.jdbcTemplate = new JdbcTemplate(directoryDataSource);
+    }
+
+    public Optional<Integer> findShard(String email) {
+        List<Integer> shards = jdbcTemplate.queryForList(
+                "select shard_id from user_email_directory where email = ?", Integer.class, email);
+        return shards.stream().findFirst();
+    }
+
+    public Optional<String> findEmail(long userId) {
+        List<String> emails = jdbcTemplate.queryForList(
+                "select email from user_email_directory where user_id = ?", String.class, userId);
+        return emails.stream().findFirst();
+    }
+
+    public void register(String email, long userId, int shard) {
+        jdbcTemplate.update(
+                "insert into user_email_directory (email, user_id, shard_id) values (?, ?, ?)", email, userId, shard);
+    }
+
+    public void removeEmail(String email) {
+        jdbcTemplate.update("delete from user_email_directory where email = ?", email);
+    }
+
+    public void removeUser(long userId) {
+        jdbcTemplate.update("delete from user_email_directory where user_id = ?", userId);
+    }
+
+    public void removeAll() {
+        jdbcTemplate.update("delete from user_email_directory");
+    }
+}
@@ -0,0 +1,334 @@
+package com.example.java_test_poc.sharding;
+
+import com.example.java_test_poc.entity.UserEntity;
+import com.example.java_test_poc.repository.UserRepository;
+import com.example.java_test_poc.tracing.SlowQueryTracer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Routes {@link UserRepository} calls to the shard that owns the data. Lookups by id use the
+ * shard embedded in the id, lookups by email go through the global {@link UserShardDirectory},
+ * whole-table reads are scattered to every shard in parallel and merged, and bulk writes are
+ * split per shard or replayed one entity at a time so the directory stays in step.
+ * <p>
+ * A connection is routed when it is acquired, so a transaction already open on the calling thread
+ * stays on the shard that was current in {@link ShardContext} when it began (shard 0 by default).
+ * Routed calls made inside such a transaction must target that shard and fail with
+ * {@link IllegalStateException} otherwise; wrap the transaction in {@link ShardContext#callOn} to
+ * open it on the right shard. Scattered calls run on worker threads outside the caller's transaction.
+ */
+public class UserShardingInterceptor implements MethodInterceptor {
+
+    private final int shardCount;
+    private final UserShardDirectory directory;
+    private final ExecutorService executor;
+    private final ObjectProvider<UserRepository> userRepository;
+
+    public UserShardingInterceptor(int shardCount, UserShardDirectory directory, ExecutorService executor,
+                                   ObjectProvider<UserRepository> userRepository) {
+        this.shardCount = shardCount;
+        this.directory = directory;
+        this.executor = executor;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (invocation.getMethod().getDeclaringClass() == Object.class) {
+            return invocation.proceed();
+        }
+
+        Object[] args = invocation.getArguments();
+        switch (invocation.getMethod().getName()) {
+            case "findById", "existsById", "getReferenceById", "getById":
+                return proceedOn(shardFor((Long) args[0]), invocation);
+            case "deleteById":
+                proceedOn(shardFor((Long) args[0]), invocation);
+                directory.removeUser((Long) args[0]);
+                return null;
+            case "delete":
+                UserEntity deleted = (UserEntity) args[0];
+                proceedOn(shardFor(deleted.getId()), invocation);
+                directory.removeUser(deleted.getId());
+                return null;
+            case "save", "saveAndFlush":
+                return save(invocation, (UserEntity) args[0]);
+            case "saveAll", "saveAllAndFlush":
+                return saveAll(invocation.getMethod().getName(), castIterable(args[0]));
+            case "deleteAll":
+                if (args.length == 0) {
+                    scatter(invocation, shard -> args);
+                    directory.removeAll();
+                } else {
+                    castIterable(args[0]).forEach(userRepository.getObject()::delete);
+                }
+                return null;
+            case "deleteAllById":
+                ((Iterable<?>) args[0]).forEach(id -> userRepository.getObject().deleteById((Long) id));
+                return null;
+            case "deleteAllInBatch":
+                if (args.length == 0) {
+                    scatter(invocation, shard -> args);
+                    directory.removeAll();
+                } else {
+                    deleteInBatch(invocation, castIterable(args[0]), UserEntity::getId);
+                }
+                return null;
+            case "deleteAllByIdInBatch":
+                deleteInBatch(invocation, (Iterable<?>) args[0], id -> (Long) id);
+                return null;
+            case "flush":
+                return invocation.proceed();
+            case "findByEmail":
+                Optional<Integer> emailShard = directory.findShard((String) args[0]);
+                return emailShard.isPresent() ? proceedOn(emailShard.get(), invocation) : Optional.empty();
+            case "existsByEmail":
+                return directory.findShard((String) args[0]).isPresent();
+            case "findAllById":
+                return findAllById(invocation, (Iterable<?>) args[0]);
+            case "findAll":
+                return findAll(invocation, args);
+            case "findByIdGreaterThanOrderByIdAsc":
+                return findNextByIdAcrossShards(invocation, (Limit) args[1]);
+            case "count":
+                return scatter(invocation, shard -> args).stream().mapToLong(count -> (Long) count).sum();
+            default:
+                throw new UnsupportedOperationException(
+                        invocation.getMethod().getName() + " is not supported on a sharded UserRepository");
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Object save(MethodInvocation invocation, UserEntity user) throws Throwable {
+        if (user.getId() == null) {
+            int shard = Math.floorMod(user.getEmail().hashCode(), shardCount);
+            UserEntity saved = (UserEntity) proceedOn(shard, invocation);
+            try {
+                directory.register(saved.getEmail(), saved.getId(), shard);
+            } catch (RuntimeException e) {
+                userRepository.getObject().deleteById(saved.getId());
+                throw e;
+            }
+            return saved;
+        }
+
+        int shard = shardFor(user.getId());
+        Optional<String> previousEmail = directory.findEmail(user.getId());
+        boolean emailChanged = previousEmail.map(email -> !email.equals(user.getEmail())).orElse(true);
+        if (emailChanged) {
+            directory.register(user.getEmail(), user.getId(), shard);
+        }
+
+        Object saved;
+        try {
+            saved = proceedOn(shard, invocation);
+        } catch (Throwable e) {
+            if (emailChanged) {
+                directory.removeEmail(user.getEmail());
+            }
+            throw e;
+        }
+        if (emailChanged) {
+            previousEmail.ifPresent(directory::removeEmail);
+        }
+        return saved;
+    }
+
+    private List<UserEntity> saveAll(String methodName, Iterable<UserEntity> users) {
+        UserRepository repository = userRepository.getObject();
+        List<UserEntity> saved = new ArrayList<>();
+        for (UserEntity user : users) {
+            saved.add(methodName.equals("saveAllAndFlush") ? repository.saveAndFlush(user) : repository.save(user));
+        }
+        return saved;
+    }
+
+    private Object findAllById(MethodInvocation invocation, Iterable<?> ids) throws Throwable {
+        List<UserEntity> users = new ArrayList<>();
+        for (Object shardResult : await(submitByShard(invocation, ids, id -> (Long) id))) {
+            users.addAll(castList(shardResult));
+        }
+        return users;
+    }
+
+    private <T> void deleteInBatch(MethodInvocation invocation, Iterable<T> items, Function<T, Long> idOf) throws Throwable {
+        await(submitByShard(invocation, items, idOf));
+        for (T item : items) {
+            directory.removeUser(idOf.apply(item));
+        }
+    }
+
+    private <T> List<Future<Object>> submitByShard(MethodInvocation invocation, Iterable<T> items, Function<T, Long> idOf) {
+        Map<Integer, List<T>> itemsByShard = new LinkedHashMap<>();
+        for (T item : items) {
+            itemsByShard.computeIfAbsent(shardFor(idOf.apply(item)), shard -> new ArrayList<>()).add(item);
+        }
+
+        String caller = SlowQueryTracer.currentCaller();
+        List<Future<Object>> futures = new ArrayList<>(itemsByShard.size());
+        for (Map.Entry<Integer, List<T>> entry : itemsByShard.entrySet()) {
+            futures.add(submit(entry.getKey(), invocation, new Object[]{entry.getValue()}, caller));
+        }
+        return futures;
+    }
+
+    private Object findAll(MethodInvocation invocation, Object[] args) throws Throwable {
+        if (args.length == 0) {
+            List<UserEntity> users = new ArrayList<>();
+            scatter(invocation, shard -> args).forEach(shardResult -> users.addAll(castList(shardResult)));
+            return users;
+        }
+
+        if (args[0] instanceof Sort sort) {
+            List<UserEntity> users = new ArrayList<>();
+            scatter(invocation, shard -> args).forEach(shardResult -> users.addAll(castList(shardResult)));
+            users.sort(comparator(sort));
+            return users;
+        }
+
+        if (args[0] instanceof Pageable pageable && args.length == 1) {
+            if (pageable.isUnpaged()) {
+                List<UserEntity> users = new ArrayList<>();
+                scatter(invocation, shard -> args).forEach(shardResult -> users.addAll(castList(((Page<?>) shardResult).getContent())));
+                users.sort(comparator(pageable.getSort()));
+                return new PageImpl<>(users);
+            }
+
+            Sort sort = pageable.getSort().isSorted() ? pageable.getSort() : Sort.by("id");
+            Pageable shardPage = PageRequest.of(0, Math.toIntExact(pageable.getOffset() + pageable.getPageSize()), sort);
+
+            List<UserEntity> merged = new ArrayList<>();
+            long total = 0;
+            for (Object shardResult : scatter(invocation, shard -> new Object[]{shardPage})) {
+                Page<?> page = (Page<?>) shardResult;
+                merged.addAll(castList(page.getContent()));
+                total += page.getTotalElements();
+            }
+            merged.sort(comparator(sort));
+
+            int from = Math.toIntExact(Math.min(pageable.getOffset(), merged.size()));
+            int to = Math.min(from + pageable.getPageSize(), merged.size());
+            return new PageImpl<>(new ArrayList<>(merged.subList(from, to)), pageable, total);
+        }
+
+        throw new UnsupportedOperationException("findAll with a specification or example is not supported on a sharded UserRepository");
+    }
+
+    private Object findNextByIdAcrossShards(MethodInvocation invocation, Limit limit) throws Throwable {
+        List<UserEntity> users = new ArrayList<>();
+        scatter(invocation, shard -> invocation.getArguments()).forEach(shardResult -> users.addAll(castList(shardResult)));
+        users.sort(Comparator.comparing(UserEntity::getId));
+        return limit.isLimited() && users.size() > limit.max() ? new ArrayList<>(users.subList(0, limit.max())) : users;
+    }
+
+    private int shardFor(Long id) {
+        return ShardedIds.shardOf(id) % shardCount;
+    }
+
+    private static Object proceedOn(int shard, MethodInvocation invocation) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive() && shard != ShardContext.current()) {
+            throw new IllegalStateException("Cannot route " + invocation.getMethod().getName() + " to shard " + shard
+                    + " inside a transaction bound to shard " + ShardContext.current());
+        }
+        Throwable[] failure = new Throwable[1];
+        Object result = ShardContext.callOn(shard, () -> {
+            try {
+                return invocation.proceed();
+            } catch (Throwable e) {
+                failure[0] = e;
+                return null;
+            }
+        });
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        return result;
+    }
+
+    private List<Object> scatter(MethodInvocation invocation, Function<Integer, Object[]> argsForShard) throws Throwable {
+        String caller = SlowQueryTracer.currentCaller();
+        List<Future<Object>> futures = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            futures.add(submit(shard, invocation, argsForShard.apply(shard), caller));
+        }
+        return await(futures);
+    }
+
+    private Future<Object> submit(int shard, MethodInvocation invocation, Object[] args, String caller) {
+        MethodInvocation clone = ((ProxyMethodInvocation) invocation).invocableClone(args);
+        return executor.submit(() -> SlowQueryTracer.callAs(caller, () -> {
+            try {
+                return proceedOn(shard, clone);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new UndeclaredThrowableException(e);
+            }
+        }));
+    }
+
+    private static List<Object> await(List<Future<Object>> futures) throws Throwable {
+        List<Object> results = new ArrayList<>(futures.size());
+        try {
+            for (Future<Object> future : futures) {
+                results.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e.getCause() instanceof UndeclaredThrowableException undeclared ? undeclared.getUndeclaredThrowable() : e.getCause();
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+        return results;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparator<UserEntity> comparator(Sort sort) {
+        Comparator<UserEntity> comparator = (left, right) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<UserEntity> byProperty = Comparator.comparing(
+                    user -> (Comparable<Object>) new BeanWrapperImpl(user).getPropertyValue(order.getProperty()),
+                    Comparator.nullsLast(Comparator.naturalOrder()));
+            comparator = comparator.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+        }
+        return comparator;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Iterable<UserEntity> castIterable(Object argument) {
+        return (Iterable<UserEntity>) argument;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<UserEntity> castList(Object result) {
+        return (List<UserEntity>) result;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.java_test_poc.snapshot;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "snapshot.enabled", havingValue = "true", matchIfMissing = true)
+public class SnapshotConfig {
+}
@@ -0,0 +1,41 @@
+package com.example.java_test_poc.snapshot;
+
+import java.nio.file.Path;
+
+public class UserSnapshot {
+    private final Path path;
+    private final long version;
+    private final String digest;
+    private final long size;
+
+    public UserSnapshot(Path path, long version, String digest, long size) {
+        this.path = path;
+        this.version = version;
+        this.digest = digest;
+        this.size = size;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public String getDigest() {
+        return digest;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public String getEtag() {
+        return "\"" + digest + "\"";
+    }
+
+    public String getDownloadName() {
+        return "users-" + version + ".ndjson.gz";
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.java_test_poc.snapshot;
+
+import com.example.java_test_poc.dto.UserResponse;
+import com.example.java_test_poc.entity.UserEntity;
+import com.example.java_test_poc.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+@Component
+@ConditionalOnProperty(name = "snapshot.enabled", havingValue = "true", matchIfMissing = true)
+public class UserSnapshotJob {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final UserSnapshotStore snapshotStore;
+    private final int batchSize;
+
+    @Autowired
+    public UserSnapshotJob(UserRepository userRepository, ObjectMapper objectMapper, UserSnapshotStore snapshotStore,
+                           @Value("${snapshot.batch-size:1000}") int batchSize) {
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.snapshotStore = snapshotStore;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${snapshot.initial-delay-ms:10000}", fixedDelayString = "${snapshot.interval-ms:3600000}")
+    public UserSnapshot writeSnapshot() throws IOException {
+        long version = System.currentTimeMillis();
+        MessageDigest digest = sha256();
+        Path tempFile = snapshotStore.newTempFile();
+
+        try (SequenceWriter writer = objectMapper.writer()
+                .withRootValueSeparator("\n")
+                .writeValues(new GZIPOutputStream(new DigestOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(tempFile), BUFFER_SIZE), digest), BUFFER_SIZE))) {
+            long lastId = Long.MIN_VALUE;
+            List<UserEntity> batch;
+            do {
+                batch = userRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(batchSize));
+                for (UserEntity user : batch) {
+                    writer.write(new UserResponse(user.getId(), user.getName(), user.getEmail()));
+                }
+                if (!batch.isEmpty()) {
+                    lastId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == batchSize);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+
+        return snapshotStore.publish(tempFile, version, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.java_test_poc.snapshot;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Owns the snapshot directory. Snapshots are written to a temporary file and atomically renamed
+ * to {@code users-<version>-<sha256>.ndjson.gz}, so a published file never changes and can be
+ * served straight from disk. The newest few files are kept so in-progress downloads of an older
+ * version can finish. If the published file disappears from disk, the newest remaining one is
+ * served instead, or none at all.
+ */
+@Component
+@ConditionalOnProperty(name = "snapshot.enabled", havingValue = "true", matchIfMissing = true)
+public class UserSnapshotStore {
+
+    private static final Pattern SNAPSHOT_NAME = Pattern.compile("users-(\\d+)-([0-9a-f]{64})\\.ndjson\\.gz");
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final int retain;
+    private final AtomicReference<UserSnapshot> latest = new AtomicReference<>();
+
+    @Autowired
+    public UserSnapshotStore(@Value("${snapshot.directory:data/snapshots}") String directory,
+                             @Value("${snapshot.retain:3}") int retain) {
+        this.directory = Paths.get(directory);
+        this.retain = Math.max(1, retain);
+        try {
+            Files.createDirectories(this.directory);
+            List<UserSnapshot> existing = list();
+            if (!existing.isEmpty()) {
+                latest.set(existing.get(0));
+            }
+            try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(this.directory, "*" + TEMP_SUFFIX)) {
+                for (Path leftover : leftovers) {
+                    Files.deleteIfExists(leftover);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open snapshot directory " + directory, e);
+        }
+    }
+
+    public Optional<UserSnapshot> getLatest() {
+        UserSnapshot snapshot = latest.get();
+        if (snapshot != null && !Files.isRegularFile(snapshot.getPath())) {
+            latest.compareAndSet(snapshot, newestOnDisk());
+            snapshot = latest.get();
+        }
+        return Optional.ofNullable(snapshot);
+    }
+
+    public Path newTempFile() throws IOException {
+        return Files.createTempFile(directory, "users-", TEMP_SUFFIX);
+    }
+
+    public synchronized UserSnapshot publish(Path tempFile, long version, String digest) throws IOException {
+        Path target = directory.resolve("users-" + version + "-" + digest + ".ndjson.gz");
+        Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+        UserSnapshot snapshot = new UserSnapshot(target, version, digest, Files.size(target));
+        latest.set(snapshot);
+
+        List<UserSnapshot> snapshots = list();
+        for (UserSnapshot old : snapshots.subList(Math.min(retain, snapshots.size()), snapshots.size())) {
+            Files.deleteIfExists(old.getPath());
+        }
+        return snapshot;
+    }
+
+    private UserSnapshot newestOnDisk() {
+        try {
+            List<UserSnapshot> snapshots = list();
+            return snapshots.isEmpty() ? null : snapshots.get(0);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private List<UserSnapshot> list() throws IOException {
+        List<UserSnapshot> snapshots = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "users-*.ndjson.gz")) {
+            for (Path file : files) {
+                Matcher matcher = SNAPSHOT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    snapshots.add(new UserSnapshot(file, Long.parseLong(matcher.group(1)), matcher.group(2), Files.size(file)));
+                }
+            }
+        }
+        snapshots.sort(Comparator.comparingLong(UserSnapshot::getVersion).reversed());
+        return snapshots;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.java_test_poc.tracing;
+
+import com.example.java_test_poc.dto.SlowQueryRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+@Component
+public class SlowQueryTracer {
+
+    private static final String SERVICE_PACKAGE = "com.example.java_test_poc.service.";
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+    private static final ThreadLocal<String> PROPAGATED_CALLER = new ThreadLocal<>();
+
+    private final long thresholdNanos;
+    private final double sampleRate;
+    private final boolean captureParameters;
+    private final ArrayBlockingQueue<SlowQueryRecord> buffer;
+    private final AtomicLong evicted = new AtomicLong();
+    private final LongAdder executed = new LongAdder();
+
+    public SlowQueryTracer(@Value("${tracing.slow-query.threshold-ms:200}") long thresholdMs,
+                           @Value("${tracing.slow-query.sample-rate:0.0}") double sampleRate,
+                           @Value("${tracing.slow-query.buffer-size:256}") int bufferSize,
+                           @Value("${tracing.slow-query.capture-parameters:false}") boolean captureParameters) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMs);
+        this.sampleRate = sampleRate;
+        this.captureParameters = captureParameters;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+    }
+
+    public void onExecuted(String sql, Object[] parameters, long elapsedNanos) {
+        executed.increment();
+        boolean slow = elapsedNanos >= thresholdNanos;
+        if (!slow && (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return;
+        }
+
+        SlowQueryRecord record = new SlowQueryRecord(
+                Instant.now(),
+                sql,
+                describe(parameters),
+                elapsedNanos / 1_000_000.0,
+                currentCaller(),
+                !slow);
+
+        while (!buffer.offer(record)) {
+            if (buffer.poll() != null) {
+                evicted.incrementAndGet();
+            }
+        }
+    }
+
+    public List<SlowQueryRecord> getRecords() {
+        return new ArrayList<>(buffer);
+    }
+
+    public long getExecutedCount() {
+        return executed.sum();
+    }
+
+    public long getEvictedCount() {
+        return evicted.get();
+    }
+
+    public void clear() {
+        buffer.clear();
+    }
+
+    private List<String> describe(Object[] parameters) {
+        if (parameters == null) {
+            return List.of();
+        }
+        List<String> values = new ArrayList<>(parameters.length);
+        for (Object parameter : parameters) {
+            if (parameter == null) {
+                values.add("null");
+            } else if (captureParameters) {
+                values.add(String.valueOf(parameter));
+            } else {
+                values.add("<" + parameter.getClass().getSimpleName() + ">");
+            }
+        }
+        return values;
+    }
+
+    public static String currentCaller() {
+        String propagated = PROPAGATED_CALLER.get();
+        return propagated != null ? propagated : findCaller();
+    }
+
+    public static <T> T callAs(String caller, Supplier<T> action) {
+        String previous = PROPAGATED_CALLER.get();
+        PROPAGATED_CALLER.set(caller);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                PROPAGATED_CALLER.set(previous);
+            } else {
+                PROPAGATED_CALLER.remove();
+            }
+        }
+    }
+
+    private static String findCaller() {
+        Optional<String> caller = STACK_WALKER.walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(SERVICE_PACKAGE)
+                        && frame.getClassName().endsWith("Service")
+                        && !frame.getMethodName().startsWith("lambda$"))
+                .map(frame -> frame.getClassName().substring(SERVICE_PACKAGE.length()) + "." + frame.getMethodName())
+                .findFirst());
+        return caller.orElse(null);
+    }
+}
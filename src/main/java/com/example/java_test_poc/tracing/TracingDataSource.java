@@ -0,0 +1,139 @@
+package com.example.java_test_poc.tracing;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+public class TracingDataSource extends DelegatingDataSource implements Closeable {
+
+    private final SlowQueryTracer tracer;
+
+    public TracingDataSource(DataSource targetDataSource, SlowQueryTracer tracer) {
+        super(targetDataSource);
+        this.tracer = tracer;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(super.getConnection(username, password));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (getTargetDataSource() instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        }
+    }
+
+    private Connection wrapConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                TracingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = TracingDataSource.invoke(target, method, args);
+            String name = method.getName();
+            if (result instanceof CallableStatement statement && name.equals("prepareCall")) {
+                return wrapStatement(statement, CallableStatement.class, (String) args[0]);
+            }
+            if (result instanceof PreparedStatement statement && name.equals("prepareStatement")) {
+                return wrapStatement(statement, PreparedStatement.class, (String) args[0]);
+            }
+            if (result instanceof Statement statement && name.equals("createStatement")) {
+                return wrapStatement(statement, Statement.class, null);
+            }
+            return result;
+        }
+
+        private Object wrapStatement(Statement statement, Class<?> type, String sql) {
+            return Proxy.newProxyInstance(
+                    TracingDataSource.class.getClassLoader(),
+                    new Class<?>[]{type},
+                    new StatementHandler(statement, sql));
+        }
+    }
+
+    private class StatementHandler implements InvocationHandler {
+        private static final Object[] NO_PARAMETERS = new Object[0];
+
+        private final Statement target;
+        private final String sql;
+        private Object[] parameters = NO_PARAMETERS;
+
+        StatementHandler(Statement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                String executedSql = args != null && args.length > 0 && args[0] instanceof String s ? s : sql;
+                long start = System.nanoTime();
+                try {
+                    return TracingDataSource.invoke(target, method, args);
+                } finally {
+                    tracer.onExecuted(executedSql, parameters, System.nanoTime() - start);
+                }
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                bind(index, name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                parameters = NO_PARAMETERS;
+            }
+            return TracingDataSource.invoke(target, method, args);
+        }
+
+        private void bind(int index, Object value) {
+            if (index < 1) {
+                return;
+            }
+            if (index > parameters.length) {
+                parameters = Arrays.copyOf(parameters, index);
+            }
+            parameters[index - 1] = value;
+        }
+    }
+}
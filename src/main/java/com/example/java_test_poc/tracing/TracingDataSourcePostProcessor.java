@@ -0,0 +1,27 @@
+package com.example.java_test_poc.tracing;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+@Component
+@ConditionalOnProperty(name = "tracing.slow-query.enabled", havingValue = "true", matchIfMissing = true)
+public class TracingDataSourcePostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<SlowQueryTracer> tracer;
+
+    public TracingDataSourcePostProcessor(ObjectProvider<SlowQueryTracer> tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof TracingDataSource)) {
+            return new TracingDataSource(dataSource, tracer.getObject());
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,7 @@
+create table if not exists idempotency_keys (
+    idempotency_key varchar(300) not null primary key,
+    fingerprint varchar(64) not null,
+    status integer not null,
+    body varchar(4000),
+    created_at bigint not null
+);
@@ -0,0 +1,7 @@
+create table if not exists user_email_directory (
+    email varchar(255) not null primary key,
+    user_id bigint not null,
+    shard_id integer not null
+);
+
+create index if not exists idx_user_email_directory_user_id on user_email_directory (user_id);
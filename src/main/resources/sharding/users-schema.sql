@@ -0,0 +1,5 @@
+create table if not exists users (
+    id bigint generated by default as identity (start with ${first_id} increment by ${id_step}) primary key,
+    name varchar(255) not null,
+    email varchar(255) not null unique
+);
@@ -0,0 +1,228 @@
+package com.example.java_test_poc.budget;
+
+import com.example.java_test_poc.dto.UserRequest;
+import com.example.java_test_poc.entity.UserEntity;
+import com.example.java_test_poc.repository.UserRepository;
+import com.example.java_test_poc.service.UserService;
+import com.example.java_test_poc.tracing.SlowQueryTracer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs every user operation against H2 and checks it against a budget of JDBC statements,
+ * database round trips (statements plus transaction completions) and bytes allocated on the
+ * calling thread. Each operation runs a few times to warm up and is then measured over several
+ * runs, and the median of each metric is compared, so a single JIT or GC hiccup does not fail
+ * the build. When a budget is exceeded the failure message lists every offending operation with
+ * budget, actual and diff. Statement and round-trip budgets equal the measured values and each
+ * allocation budget is about 1.5x that operation's own measured median; run with
+ * {@code -Dbudget.report=true} to print every measurement when re-baselining.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "users.lookup.batch-window-ms=0",
+        "snapshot.enabled=false"
+})
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+class OperationBudgetTest {
+
+    private static final long KB = 1024;
+    private static final int WARM_UP_RUNS = 3;
+    private static final int MEASURED_RUNS = 7;
+    private static final int SEEDED_USERS = 6 + WARM_UP_RUNS + MEASURED_RUNS;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SlowQueryTracer slowQueryTracer;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Statistics statistics;
+    private List<Long> seededIds;
+    private Deque<Long> deletableIds;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        userRepository.deleteAll();
+
+        seededIds = new ArrayList<>();
+        for (int i = 0; i < SEEDED_USERS; i++) {
+            seededIds.add(userRepository.save(new UserEntity("Seeded User " + i, "seeded" + i + "@example.com")).getId());
+        }
+        deletableIds = new ArrayDeque<>(seededIds.subList(6, SEEDED_USERS));
+    }
+
+    @Test
+    void userServiceOperations_StayWithinBudget() throws Exception {
+        Long id = seededIds.get(0);
+        List<Long> ids = seededIds.subList(0, 3);
+
+        assertWithinBudget(List.of(
+                measure("UserService.createUser", new Budget(2, 3, 216 * KB),
+                        () -> userService.createUser(new UserRequest("New User", uniqueEmail()))),
+                measure("UserService.getAllUsers", new Budget(1, 2, 128 * KB),
+                        () -> userService.getAllUsers()),
+                measure("UserService.getUsers", new Budget(2, 3, 152 * KB),
+                        () -> userService.getUsers(0, 2)),
+                measure("UserService.getUsersByIds", new Budget(1, 2, 128 * KB),
+                        () -> userService.getUsersByIds(ids)),
+                measure("UserService.getUserById", new Budget(1, 2, 88 * KB),
+                        () -> userService.getUserById(id)),
+                measure("UserService.getUserByEmail", new Budget(1, 1, 112 * KB),
+                        () -> userService.getUserByEmail("seeded1@example.com")),
+                measure("UserService.updateUser", new Budget(4, 6, 312 * KB),
+                        () -> userService.updateUser(id, new UserRequest("Updated User", uniqueEmail()))),
+                measure("UserService.deleteUser", new Budget(3, 5, 200 * KB),
+                        () -> userService.deleteUser(deletableIds.pop()))
+        ));
+    }
+
+    @Test
+    void userControllerOperations_StayWithinBudget() throws Exception {
+        Long id = seededIds.get(0);
+
+        assertWithinBudget(List.of(
+                measure("POST /users", new Budget(2, 3, 280 * KB),
+                        () -> mockMvc.perform(post("/users")
+                                        .header("Idempotency-Key", UUID.randomUUID().toString())
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content(objectMapper.writeValueAsString(new UserRequest("New User", uniqueEmail()))))
+                                .andExpect(status().isCreated())),
+                measure("GET /users", new Budget(1, 2, 224 * KB),
+                        () -> mockMvc.perform(get("/users")).andExpect(status().isOk())),
+                measure("GET /users?page&size", new Budget(2, 3, 232 * KB),
+                        () -> mockMvc.perform(get("/users").param("page", "0").param("size", "2"))
+                                .andExpect(status().isOk())),
+                measure("GET /users?ids", new Budget(1, 2, 208 * KB),
+                        () -> mockMvc.perform(get("/users").param("ids", seededIds.get(0) + "," + seededIds.get(1)))
+                                .andExpect(status().isOk())),
+                measure("GET /users/{id}", new Budget(1, 2, 168 * KB),
+                        () -> mockMvc.perform(get("/users/" + id)).andExpect(status().isOk())),
+                measure("GET /users/email/{email}", new Budget(1, 1, 192 * KB),
+                        () -> mockMvc.perform(get("/users/email/seeded1@example.com")).andExpect(status().isOk())),
+                measure("PUT /users/{id}", new Budget(3, 5, 264 * KB),
+                        () -> mockMvc.perform(put("/users/" + id)
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content(objectMapper.writeValueAsString(new UserRequest("Updated User", uniqueEmail()))))
+                                .andExpect(status().isOk())),
+                measure("DELETE /users/{id}", new Budget(3, 5, 200 * KB),
+                        () -> mockMvc.perform(delete("/users/" + deletableIds.pop())).andExpect(status().isNoContent()))
+        ));
+    }
+
+    private Measurement measure(String operation, Budget budget, Operation action) throws Exception {
+        for (int i = 0; i < WARM_UP_RUNS; i++) {
+            action.run();
+        }
+
+        long[] statements = new long[MEASURED_RUNS];
+        long[] roundTrips = new long[MEASURED_RUNS];
+        long[] allocated = new long[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            statistics.clear();
+            long statementsBefore = slowQueryTracer.getExecutedCount();
+            long allocatedBefore = allocatedBytes();
+
+            action.run();
+
+            allocated[i] = allocatedBytes() - allocatedBefore;
+            statements[i] = slowQueryTracer.getExecutedCount() - statementsBefore;
+            roundTrips[i] = statements[i] + statistics.getTransactionCount();
+        }
+        return new Measurement(operation, budget, median(statements), median(roundTrips), median(allocated));
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static void assertWithinBudget(List<Measurement> measurements) {
+        if (Boolean.getBoolean("budget.report")) {
+            System.out.printf("  %-28s %12s %12s %16s%n", "operation", "statements", "round trips", "allocated bytes");
+            measurements.forEach(measurement -> System.out.printf("  %-28s %12d %12d %16d%n",
+                    measurement.operation, measurement.statements, measurement.roundTrips, measurement.allocatedBytes));
+        }
+
+        List<String> violations = new ArrayList<>();
+        for (Measurement measurement : measurements) {
+            Budget budget = measurement.budget;
+            check(violations, measurement.operation, "statements", budget.statements, measurement.statements);
+            check(violations, measurement.operation, "round trips", budget.roundTrips, measurement.roundTrips);
+            check(violations, measurement.operation, "allocated bytes", budget.allocatedBytes, measurement.allocatedBytes);
+        }
+
+        if (!violations.isEmpty()) {
+            StringBuilder report = new StringBuilder()
+                    .append(violations.size()).append(" budget(s) exceeded:\n")
+                    .append(String.format("  %-28s %-16s %12s %12s %12s%n", "operation", "metric", "budget", "actual", "diff"));
+            violations.forEach(report::append);
+            fail(report.toString());
+        }
+    }
+
+    private static void check(List<String> violations, String operation, String metric, long budget, long actual) {
+        if (actual > budget) {
+            violations.add(String.format("  %-28s %-16s %12d %12d %+12d%n", operation, metric, budget, actual, actual - budget));
+        }
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    private static String uniqueEmail() {
+        return "user-" + UUID.randomUUID() + "@example.com";
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        void run() throws Exception;
+    }
+
+    private record Budget(long statements, long roundTrips, long allocatedBytes) {
+    }
+
+    private record Measurement(String operation, Budget budget, long statements, long roundTrips, long allocatedBytes) {
+    }
+}
@@ -2,18 +2,25 @@ package com.example.java_test_poc.controller;
 
 import com.example.java_test_poc.dto.UserRequest;
 import com.example.java_test_poc.dto.UserResponse;
+import com.example.java_test_poc.idempotency.IdempotencyConfig;
+import com.example.java_test_poc.idempotency.IdempotencyService;
 import com.example.java_test_poc.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -21,6 +28,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(UserController.class)
+@Import({IdempotencyConfig.class, IdempotencyService.class})
 class UserControllerTest {
 
     @Autowired
@@ -61,6 +69,43 @@ class UserControllerTest {
                 .andExpect(status().isConflict());
     }
 
+    @Test
+    void shouldReplayCreateResponseForRepeatedIdempotencyKey() throws Exception {
+        UserRequest userRequest = new UserRequest("John Doe", "john.retry@example.com");
+        UserResponse userResponse = new UserResponse(1L, "John Doe", "john.retry@example.com");
+
+        Mockito.when(userService.createUser(any(UserRequest.class))).thenReturn(userResponse);
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/users")
+                            .header("Idempotency-Key", "create-john")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(userRequest)))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.id").value(1L));
+        }
+
+        Mockito.verify(userService, Mockito.times(1)).createUser(any(UserRequest.class));
+    }
+
+    @Test
+    void shouldRejectIdempotencyKeyReusedWithDifferentPayload() throws Exception {
+        Mockito.when(userService.createUser(any(UserRequest.class)))
+                .thenReturn(new UserResponse(1L, "John Doe", "john.reuse@example.com"));
+
+        mockMvc.perform(post("/users")
+                        .header("Idempotency-Key", "create-reused")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UserRequest("John Doe", "john.reuse@example.com"))))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/users")
+                        .header("Idempotency-Key", "create-reused")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UserRequest("Jane Doe", "jane.reuse@example.com"))))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
     @Test
     void shouldGetAllUsers() throws Exception {
         List<UserResponse> users = List.of(
@@ -77,6 +122,60 @@ class UserControllerTest {
                 .andExpect(jsonPath("$[0].email").value("john@example.com"));
     }
 
+    @Test
+    void shouldGetUsersPage() throws Exception {
+        List<UserResponse> users = List.of(new UserResponse(3L, "John Doe", "john@example.com"));
+
+        Mockito.when(userService.getUsers(1, 2))
+                .thenReturn(new PageImpl<>(users, PageRequest.of(1, 2), 3));
+
+        mockMvc.perform(get("/users").param("page", "1").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "3"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(3L));
+    }
+
+    @Test
+    void shouldRejectInvalidPageSize() throws Exception {
+        mockMvc.perform(get("/users").param("page", "0").param("size", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldRejectPageBeyondMaxOffset() throws Exception {
+        mockMvc.perform(get("/users").param("page", "2147483647").param("size", "500"))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verify(userService, Mockito.never()).getUsers(Mockito.anyInt(), Mockito.anyInt());
+    }
+
+    @Test
+    void shouldGetUsersByIds() throws Exception {
+        List<UserResponse> users = List.of(
+                new UserResponse(1L, "John Doe", "john@example.com"),
+                new UserResponse(3L, "Jane Doe", "jane@example.com")
+        );
+
+        Mockito.when(userService.getUsersByIds(List.of(1L, 2L, 3L))).thenReturn(users);
+
+        mockMvc.perform(get("/users").param("ids", "1,2,3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(1L))
+                .andExpect(jsonPath("$[1].id").value(3L));
+    }
+
+    @Test
+    void shouldRejectTooManyIds() throws Exception {
+        String ids = LongStream.rangeClosed(1, 501).mapToObj(String::valueOf).collect(Collectors.joining(","));
+
+        mockMvc.perform(get("/users").param("ids", ids))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verify(userService, Mockito.never()).getUsersByIds(any());
+    }
+
     @Test
     void shouldGetUserByIdWhenFound() throws Exception {
         UserResponse user = new UserResponse(1L, "John Doe", "john@example.com");
@@ -113,6 +212,31 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.email").value("john@example.com"));
     }
 
+    @Test
+    void shouldReplayUpdateResponseForRepeatedIdempotencyKey() throws Exception {
+        UserRequest updateRequest = new UserRequest("John Updated", "john@example.com");
+        UserResponse updatedUser = new UserResponse(1L, "John Updated", "john@example.com");
+
+        Mockito.when(userService.updateUser(eq(1L), any(UserRequest.class)))
+                .thenReturn(Optional.of(updatedUser));
+
+        mockMvc.perform(put("/users/1")
+                        .header("Idempotency-Key", "update-john")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateRequest)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(put("/users/1")
+                        .header("Idempotency-Key", "update-john")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateRequest)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.name").value("John Updated"));
+
+        Mockito.verify(userService, Mockito.times(1)).updateUser(eq(1L), any(UserRequest.class));
+    }
+
     @Test
     void shouldReturnNotFoundWhenUpdateFails() throws Exception {
         UserRequest updateRequest = new UserRequest("John Updated", "john@example.com");
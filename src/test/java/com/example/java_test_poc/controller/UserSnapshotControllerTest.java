@@ -0,0 +1,111 @@
+package com.example.java_test_poc.controller;
+
+import com.example.java_test_poc.snapshot.UserSnapshot;
+import com.example.java_test_poc.snapshot.UserSnapshotStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(UserSnapshotController.class)
+class UserSnapshotControllerTest {
+
+    private static final String DIGEST = "a".repeat(64);
+    private static final String ETAG = "\"" + DIGEST + "\"";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private UserSnapshotStore snapshotStore;
+
+    @TempDir
+    Path tempDir;
+
+    private byte[] content;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        content = "0123456789".getBytes(StandardCharsets.US_ASCII);
+        Path file = Files.write(tempDir.resolve("users-1-" + DIGEST + ".ndjson.gz"), content);
+        Mockito.when(snapshotStore.getLatest())
+                .thenReturn(Optional.of(new UserSnapshot(file, 1L, DIGEST, content.length)));
+    }
+
+    @Test
+    void shouldServeWholeSnapshot() throws Exception {
+        mockMvc.perform(get("/users/snapshot"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", ETAG))
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andExpect(header().longValue("Content-Length", 10))
+                .andExpect(content().bytes(content));
+    }
+
+    @Test
+    void shouldServeRequestedRange() throws Exception {
+        mockMvc.perform(get("/users/snapshot").header("Range", "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 2-5/10"))
+                .andExpect(content().string("2345"));
+    }
+
+    @Test
+    void shouldServeSuffixRange() throws Exception {
+        mockMvc.perform(get("/users/snapshot").header("Range", "bytes=-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 7-9/10"))
+                .andExpect(content().string("789"));
+    }
+
+    @Test
+    void shouldIgnoreRangeWhenIfRangeDoesNotMatch() throws Exception {
+        mockMvc.perform(get("/users/snapshot").header("Range", "bytes=2-5").header("If-Range", "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(content));
+    }
+
+    @Test
+    void shouldRejectUnsatisfiableRange() throws Exception {
+        mockMvc.perform(get("/users/snapshot").header("Range", "bytes=20-30"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string("Content-Range", "bytes */10"));
+    }
+
+    @Test
+    void shouldReturnNotModifiedWhenEtagMatches() throws Exception {
+        mockMvc.perform(get("/users/snapshot").header("If-None-Match", ETAG))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void shouldReturnServiceUnavailableWhenSnapshotFileIsGone() throws Exception {
+        Files.delete(tempDir.resolve("users-1-" + DIGEST + ".ndjson.gz"));
+
+        mockMvc.perform(get("/users/snapshot"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "60"))
+                .andExpect(header().doesNotExist("Content-Length"));
+    }
+
+    @Test
+    void shouldReturnServiceUnavailableWhenNoSnapshotYet() throws Exception {
+        Mockito.when(snapshotStore.getLatest()).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/users/snapshot"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "60"));
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.java_test_poc.idempotency;
+
+import com.example.java_test_poc.dto.UserRequest;
+import com.example.java_test_poc.dto.UserResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyServiceTest {
+
+    private MutableClock clock;
+    private InMemoryIdempotencyStore store;
+    private IdempotencyService idempotencyService;
+    private UserRequest userRequest;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        store = new InMemoryIdempotencyStore(Duration.ofHours(1), 100, clock);
+        idempotencyService = new IdempotencyService(store, new ObjectMapper(), 5000, clock);
+        userRequest = new UserRequest("João Silva", "joao@email.com");
+    }
+
+    @Test
+    void execute_WithoutKey_AlwaysRunsAction() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        idempotencyService.execute(null, "POST /users", userRequest, UserResponse.class, () -> created(calls));
+        idempotencyService.execute(null, "POST /users", userRequest, UserResponse.class, () -> created(calls));
+
+        // Then
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void execute_AfterTtl_RunsActionAgain() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        idempotencyService.execute("key-3", "POST /users", userRequest, UserResponse.class, () -> created(calls));
+
+        // When
+        clock.advance(Duration.ofHours(1).plusSeconds(1));
+        ResponseEntity<UserResponse> later = idempotencyService.execute("key-3", "POST /users", userRequest,
+                UserResponse.class, () -> created(calls));
+
+        // Then
+        assertEquals(2, calls.get());
+        assertFalse(later.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    void execute_ServerError_IsNotStored() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        idempotencyService.execute("key-1", "POST /users", userRequest, UserResponse.class, () -> {
+            calls.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        });
+        ResponseEntity<UserResponse> retry = idempotencyService.execute("key-1", "POST /users", userRequest,
+                UserResponse.class, () -> created(calls));
+
+        // Then
+        assertEquals(2, calls.get());
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+    }
+
+    @Test
+    void execute_ConcurrentDuplicates_WaitForInFlightRequest() throws Exception {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            // When
+            Future<ResponseEntity<UserResponse>> first = executor.submit(() -> idempotencyService.execute(
+                    "key-2", "POST /users", userRequest, UserResponse.class, () -> {
+                        firstStarted.countDown();
+                        awaitQuietly(release);
+                        return created(calls);
+                    }));
+            firstStarted.await();
+            Future<ResponseEntity<UserResponse>> second = executor.submit(() -> idempotencyService.execute(
+                    "key-2", "POST /users", userRequest, UserResponse.class, () -> created(calls)));
+            Thread.sleep(100);
+            release.countDown();
+
+            // Then
+            assertEquals(HttpStatus.CREATED, first.get().getStatusCode());
+            assertEquals(HttpStatus.CREATED, second.get().getStatusCode());
+            assertEquals(1L, second.get().getBody().getId());
+            assertEquals("true", second.get().getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void inMemoryStore_EvictsExpiredAndOverflowingEntries() {
+        // Given
+        InMemoryIdempotencyStore boundedStore = new InMemoryIdempotencyStore(Duration.ofSeconds(10), 2, clock);
+
+        // When
+        boundedStore.save("a", response(clock.millis()));
+        boundedStore.save("b", response(clock.millis()));
+        boundedStore.save("c", response(clock.millis()));
+
+        // Then
+        assertFalse(boundedStore.find("a").isPresent());
+        assertTrue(boundedStore.find("b").isPresent());
+
+        clock.advance(Duration.ofSeconds(11));
+        assertFalse(boundedStore.find("c").isPresent());
+        boundedStore.save("d", response(clock.millis()));
+        assertEquals(1, boundedStore.size());
+    }
+
+    @Test
+    void inMemoryStore_ClaimIsExclusiveUntilCompletedOrReleased() {
+        // When
+        boolean first = store.claim("a", StoredResponse.pending("fingerprint", clock.millis()), clock.millis() - 5000);
+        boolean second = store.claim("a", StoredResponse.pending("fingerprint", clock.millis()), clock.millis() - 5000);
+        store.release("a");
+        boolean afterRelease = store.claim("a", StoredResponse.pending("fingerprint", clock.millis()), clock.millis() - 5000);
+        store.save("a", response(clock.millis()));
+        store.save("a", new StoredResponse("other", 200, null, clock.millis()));
+
+        // Then
+        assertTrue(first);
+        assertFalse(second);
+        assertTrue(afterRelease);
+        assertEquals("fingerprint", store.find("a").orElseThrow().getFingerprint());
+        assertFalse(store.claim("a", StoredResponse.pending("fingerprint", clock.millis()), clock.millis()));
+    }
+
+    private static ResponseEntity<UserResponse> created(AtomicInteger calls) {
+        calls.incrementAndGet();
+        return ResponseEntity.status(HttpStatus.CREATED).body(new UserResponse(1L, "João Silva", "joao@email.com"));
+    }
+
+    private static StoredResponse response(long createdAtMillis) {
+        return new StoredResponse("fingerprint", 201, null, createdAtMillis);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
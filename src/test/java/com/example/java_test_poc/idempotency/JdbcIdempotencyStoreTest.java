@@ -0,0 +1,264 @@
+package com.example.java_test_poc.idempotency;
+
+import com.example.java_test_poc.dto.UserRequest;
+import com.example.java_test_poc.dto.UserResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JdbcIdempotencyStoreTest {
+
+    private MutableClock clock;
+    private JdbcTemplate jdbcTemplate;
+    private JdbcDataSource dataSource;
+    private JdbcIdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:idempotency_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+
+        clock = new MutableClock();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        store = new JdbcIdempotencyStore(dataSource, Duration.ofSeconds(10), clock);
+    }
+
+    @Test
+    void save_NewKey_IsFoundWithAllFields() {
+        // When
+        store.save("key-1", new StoredResponse("fingerprint", 201, "{\"id\":1}", clock.millis()));
+
+        // Then
+        Optional<StoredResponse> found = store.find("key-1");
+        assertTrue(found.isPresent());
+        assertEquals("fingerprint", found.get().getFingerprint());
+        assertEquals(201, found.get().getStatus());
+        assertEquals("{\"id\":1}", found.get().getBody());
+        assertEquals(clock.millis(), found.get().getCreatedAtMillis());
+        assertFalse(store.find("key-2").isPresent());
+    }
+
+    @Test
+    void save_CompletedKey_KeepsFirstResponse() {
+        // Given
+        store.save("key-1", new StoredResponse("first", 201, "{\"id\":1}", clock.millis()));
+
+        // When
+        clock.advance(Duration.ofSeconds(5));
+        store.save("key-1", new StoredResponse("second", 200, "{\"id\":2}", clock.millis()));
+
+        // Then
+        StoredResponse found = store.find("key-1").orElseThrow();
+        assertEquals("first", found.getFingerprint());
+        assertEquals(201, found.getStatus());
+        assertEquals(1, countRows());
+    }
+
+    @Test
+    void save_ExpiredKey_ReplacesRow() {
+        // Given
+        store.save("key-1", new StoredResponse("first", 201, "{\"id\":1}", clock.millis()));
+
+        // When
+        clock.advance(Duration.ofSeconds(11));
+        store.save("key-1", new StoredResponse("second", 200, "{\"id\":2}", clock.millis()));
+
+        // Then
+        StoredResponse found = store.find("key-1").orElseThrow();
+        assertEquals("second", found.getFingerprint());
+        assertEquals(clock.millis(), found.getCreatedAtMillis());
+        assertEquals(1, countRows());
+    }
+
+    @Test
+    void claim_LiveKey_IsExclusiveUntilReleased() {
+        // Given
+        JdbcIdempotencyStore otherInstance = new JdbcIdempotencyStore(dataSource, Duration.ofSeconds(10), clock);
+        long abandonedBefore = clock.millis() - 5000;
+
+        // When
+        boolean first = store.claim("key-1", StoredResponse.pending("fingerprint", clock.millis()), abandonedBefore);
+        boolean second = otherInstance.claim("key-1", StoredResponse.pending("fingerprint", clock.millis()), abandonedBefore);
+
+        // Then
+        assertTrue(first);
+        assertFalse(second);
+        assertTrue(otherInstance.find("key-1").orElseThrow().isPending());
+
+        store.release("key-1");
+        assertTrue(otherInstance.claim("key-1", StoredResponse.pending("fingerprint", clock.millis()), abandonedBefore));
+    }
+
+    @Test
+    void claim_CompletedKey_IsRefusedUntilExpired() {
+        // Given
+        store.save("key-1", new StoredResponse("fingerprint", 201, null, clock.millis()));
+
+        // Then
+        assertFalse(store.claim("key-1", StoredResponse.pending("fingerprint", clock.millis()), clock.millis()));
+        store.release("key-1");
+        assertFalse(store.find("key-1").orElseThrow().isPending());
+
+        clock.advance(Duration.ofSeconds(11));
+        assertTrue(store.claim("key-1", StoredResponse.pending("fingerprint", clock.millis()), clock.millis() - 5000));
+    }
+
+    @Test
+    void claim_AbandonedPendingKey_CanBeReclaimed() {
+        // Given
+        store.claim("key-1", StoredResponse.pending("fingerprint", clock.millis()), clock.millis() - 5000);
+
+        // When
+        clock.advance(Duration.ofSeconds(6));
+
+        // Then
+        assertTrue(store.claim("key-1", StoredResponse.pending("fingerprint", clock.millis()), clock.millis() - 5000));
+        assertEquals(clock.millis(), store.find("key-1").orElseThrow().getCreatedAtMillis());
+    }
+
+    @Test
+    void find_ExpiredKey_ReturnsEmpty() {
+        // Given
+        store.save("key-1", new StoredResponse("fingerprint", 201, null, clock.millis()));
+
+        // When
+        clock.advance(Duration.ofSeconds(11));
+
+        // Then
+        assertFalse(store.find("key-1").isPresent());
+    }
+
+    @Test
+    void claim_EveryHundredthClaim_PurgesExpiredRows() {
+        // Given
+        claim("expired");
+        clock.advance(Duration.ofSeconds(11));
+        for (int i = 2; i < 100; i++) {
+            claim("key-" + i);
+        }
+        assertEquals(99, countRows());
+
+        // When
+        claim("key-100");
+
+        // Then
+        assertEquals(99, countRows());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "select count(*) from idempotency_keys where idempotency_key = 'expired'", Integer.class));
+    }
+
+    @Test
+    void execute_WithJdbcStore_ReplaysStoredResponse() {
+        // Given
+        IdempotencyService idempotencyService = new IdempotencyService(store, new ObjectMapper(), 5000, clock);
+        UserRequest userRequest = new UserRequest("João Silva", "joao@email.com");
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        idempotencyService.execute("key-1", "POST /users", userRequest, UserResponse.class, () -> created(calls));
+        ResponseEntity<UserResponse> replay = idempotencyService.execute("key-1", "POST /users", userRequest,
+                UserResponse.class, () -> created(calls));
+
+        // Then
+        assertEquals(1, calls.get());
+        assertEquals(HttpStatus.CREATED, replay.getStatusCode());
+        assertEquals(1L, replay.getBody().getId());
+        assertEquals("true", replay.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    void execute_ConcurrentRetryOnOtherInstance_WaitsAndReplays() throws Exception {
+        // Given
+        IdempotencyService firstInstance = new IdempotencyService(store, new ObjectMapper(), 5000, clock);
+        IdempotencyService secondInstance = new IdempotencyService(
+                new JdbcIdempotencyStore(dataSource, Duration.ofSeconds(10), clock), new ObjectMapper(), 5000, clock);
+        UserRequest userRequest = new UserRequest("João Silva", "joao@email.com");
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            // When
+            Future<ResponseEntity<UserResponse>> first = executor.submit(() -> firstInstance.execute(
+                    "key-1", "POST /users", userRequest, UserResponse.class, () -> {
+                        firstStarted.countDown();
+                        awaitQuietly(release);
+                        return created(calls);
+                    }));
+            firstStarted.await();
+            Future<ResponseEntity<UserResponse>> second = executor.submit(() -> secondInstance.execute(
+                    "key-1", "POST /users", userRequest, UserResponse.class, () -> created(calls)));
+            Thread.sleep(200);
+            release.countDown();
+
+            // Then
+            assertEquals(HttpStatus.CREATED, first.get(5, TimeUnit.SECONDS).getStatusCode());
+            ResponseEntity<UserResponse> replay = second.get(5, TimeUnit.SECONDS);
+            assertEquals(HttpStatus.CREATED, replay.getStatusCode());
+            assertEquals("true", replay.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_ServerError_ReleasesClaim() {
+        // Given
+        IdempotencyService idempotencyService = new IdempotencyService(store, new ObjectMapper(), 5000, clock);
+        UserRequest userRequest = new UserRequest("João Silva", "joao@email.com");
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        idempotencyService.execute("key-1", "POST /users", userRequest, UserResponse.class, () -> {
+            calls.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        });
+
+        // Then
+        assertEquals(0, countRows());
+        idempotencyService.execute("key-1", "POST /users", userRequest, UserResponse.class, () -> created(calls));
+        assertEquals(2, calls.get());
+    }
+
+    private void claim(String key) {
+        store.claim(key, StoredResponse.pending("fingerprint", clock.millis()), clock.millis() - 5000);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private int countRows() {
+        return jdbcTemplate.queryForObject("select count(*) from idempotency_keys", Integer.class);
+    }
+
+    private static ResponseEntity<UserResponse> created(AtomicInteger calls) {
+        calls.incrementAndGet();
+        return ResponseEntity.status(HttpStatus.CREATED).body(new UserResponse(1L, "João Silva", "joao@email.com"));
+    }
+}
@@ -5,7 +5,9 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -44,4 +46,18 @@ class UserRepositoryTest {
         assertThat(exists).isTrue();
         assertThat(notExists).isFalse();
     }
+
+    @Test
+    @DisplayName("should page through users by id")
+    void shouldFindNextUsersById() {
+        UserEntity first = userRepository.save(new UserEntity("First User", "first@example.com"));
+        UserEntity second = userRepository.save(new UserEntity("Second User", "second@example.com"));
+        UserEntity third = userRepository.save(new UserEntity("Third User", "third@example.com"));
+
+        List<UserEntity> firstBatch = userRepository.findByIdGreaterThanOrderByIdAsc(Long.MIN_VALUE, Limit.of(2));
+        List<UserEntity> secondBatch = userRepository.findByIdGreaterThanOrderByIdAsc(firstBatch.get(1).getId(), Limit.of(2));
+
+        assertThat(firstBatch).extracting(UserEntity::getId).containsExactly(first.getId(), second.getId());
+        assertThat(secondBatch).extracting(UserEntity::getId).containsExactly(third.getId());
+    }
 }
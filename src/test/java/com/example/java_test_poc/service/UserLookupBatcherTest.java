@@ -0,0 +1,154 @@
+package com.example.java_test_poc.service;
+
+import com.example.java_test_poc.entity.UserEntity;
+import com.example.java_test_poc.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.anyLong;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserLookupBatcherTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserEntity john;
+    private UserEntity maria;
+
+    @BeforeEach
+    void setUp() {
+        john = new UserEntity("João Silva", "joao@email.com");
+        john.setId(1L);
+        maria = new UserEntity("Maria Santos", "maria@email.com");
+        maria.setId(2L);
+    }
+
+    @Test
+    void findById_SingleCaller_UsesFindById() {
+        // Given
+        UserLookupBatcher batcher = new UserLookupBatcher(userRepository, 0, 100);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(john));
+
+        // When
+        Optional<UserEntity> result = batcher.findById(1L);
+
+        // Then
+        assertTrue(result.isPresent());
+        verify(userRepository).findById(1L);
+        verify(userRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void findById_ConcurrentCallers_AreCoalescedIntoOneQuery() throws Exception {
+        // Given
+        UserLookupBatcher batcher = new UserLookupBatcher(userRepository, 200, 100);
+        when(userRepository.findAllById(any())).thenReturn(Arrays.asList(john, maria));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Optional<UserEntity>>> results = Arrays.asList(
+                    executor.submit(() -> { start.await(); return batcher.findById(1L); }),
+                    executor.submit(() -> { start.await(); return batcher.findById(2L); }),
+                    executor.submit(() -> { start.await(); return batcher.findById(3L); }),
+                    executor.submit(() -> { start.await(); return batcher.findById(1L); })
+            );
+
+            // When
+            start.countDown();
+
+            // Then
+            assertEquals("João Silva", results.get(0).get().orElseThrow().getName());
+            assertEquals("Maria Santos", results.get(1).get().orElseThrow().getName());
+            assertFalse(results.get(2).get().isPresent());
+            assertEquals("João Silva", results.get(3).get().orElseThrow().getName());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(userRepository, times(1)).findAllById(any());
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void findById_RepositoryThrowsError_CompletesEveryWaitingCaller() throws Exception {
+        // Given
+        UserLookupBatcher batcher = new UserLookupBatcher(userRepository, 200, 100);
+        lenient().when(userRepository.findById(anyLong())).thenThrow(new AssertionError("driver failure"));
+        lenient().when(userRepository.findAllById(any())).thenThrow(new AssertionError("driver failure"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            Future<Optional<UserEntity>> first = executor.submit(() -> { start.await(); return batcher.findById(1L); });
+            Future<Optional<UserEntity>> second = executor.submit(() -> { start.await(); return batcher.findById(2L); });
+
+            // When
+            start.countDown();
+
+            // Then
+            ExecutionException firstFailure = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+            ExecutionException secondFailure = assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(AssertionError.class, firstFailure.getCause());
+            assertInstanceOf(AssertionError.class, secondFailure.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void findByEmail_IdenticalInFlightLookups_ShareOneQuery() throws Exception {
+        // Given
+        UserLookupBatcher batcher = new UserLookupBatcher(userRepository, 0, 100);
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepository.findByEmail("joao@email.com")).thenAnswer(invocation -> {
+            queryStarted.countDown();
+            release.await();
+            return Optional.of(john);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // When
+            Future<Optional<UserEntity>> first = executor.submit(() -> batcher.findByEmail("joao@email.com"));
+            queryStarted.await();
+            Future<Optional<UserEntity>> second = executor.submit(() -> batcher.findByEmail("joao@email.com"));
+            Thread.sleep(100);
+            release.countDown();
+
+            // Then
+            assertEquals(1L, first.get().orElseThrow().getId());
+            assertEquals(1L, second.get().orElseThrow().getId());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(userRepository, times(1)).findByEmail("joao@email.com");
+    }
+}
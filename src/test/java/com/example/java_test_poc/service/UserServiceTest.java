@@ -7,9 +7,13 @@ import com.example.java_test_poc.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.util.Arrays;
 import java.util.List;
@@ -33,7 +37,6 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
-    @InjectMocks
     private UserService userService;
 
     private UserRequest userRequest;
@@ -42,6 +45,7 @@ class UserServiceTest {
 
     @BeforeEach
     void setUp() {
+        userService = new UserService(userRepository, new UserLookupBatcher(userRepository, 0, 100));
         userRequest = new UserRequest("João Silva", "joao@email.com");
         userEntity = new UserEntity("João Silva", "joao@email.com");
         userEntity.setId(1L);
@@ -118,6 +122,41 @@ class UserServiceTest {
         verify(userRepository).findAll();
     }
 
+    @Test
+    void getUsers_ReturnsRequestedPage() {
+        // Given
+        when(userRepository.findAll(any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(userEntity), PageRequest.of(0, 1, Sort.by("id")), 2));
+
+        // When
+        Page<UserResponse> result = userService.getUsers(0, 1);
+
+        // Then
+        assertEquals(1, result.getContent().size());
+        assertEquals(2, result.getTotalElements());
+        assertEquals("João Silva", result.getContent().get(0).getName());
+        verify(userRepository).findAll(PageRequest.of(0, 1, Sort.by("id")));
+    }
+
+    @Test
+    void getUsersByIds_ReturnsFoundUsersInRequestedOrder() {
+        // Given
+        UserEntity user2 = new UserEntity("Maria Santos", "maria@email.com");
+        user2.setId(2L);
+
+        when(userRepository.findAllById(any())).thenReturn(Arrays.asList(userEntity, user2));
+
+        // When
+        List<UserResponse> result = userService.getUsersByIds(Arrays.asList(2L, 3L, 1L, 2L));
+
+        // Then
+        assertEquals(2, result.size());
+        assertEquals(2L, result.get(0).getId());
+        assertEquals(1L, result.get(1).getId());
+        verify(userRepository).findAllById(any());
+        verify(userRepository, never()).findById(anyLong());
+    }
+
     @Test
     void getUserById_Found() {
         // Given
@@ -0,0 +1,243 @@
+package com.example.java_test_poc.sharding;
+
+import com.example.java_test_poc.dto.SlowQueryRecord;
+import com.example.java_test_poc.dto.UserRequest;
+import com.example.java_test_poc.dto.UserResponse;
+import com.example.java_test_poc.entity.UserEntity;
+import com.example.java_test_poc.repository.UserRepository;
+import com.example.java_test_poc.service.UserService;
+import com.example.java_test_poc.tracing.SlowQueryTracer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "sharding.enabled=true",
+        "snapshot.enabled=false",
+        "tracing.slow-query.sample-rate=1.0",
+        "tracing.slow-query.buffer-size=1000",
+        "sharding.shards[0].url=jdbc:h2:mem:sharding_test_0;DB_CLOSE_DELAY=-1",
+        "sharding.shards[0].username=sa",
+        "sharding.shards[1].url=jdbc:h2:mem:sharding_test_1;DB_CLOSE_DELAY=-1",
+        "sharding.shards[1].username=sa",
+        "sharding.shards[2].url=jdbc:h2:mem:sharding_test_2;DB_CLOSE_DELAY=-1",
+        "sharding.shards[2].username=sa"
+})
+class ShardingIntegrationTest {
+
+    private static final long MAX_SAFE_JSON_INTEGER = 1L << 53;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SlowQueryTracer tracer;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private List<JdbcTemplate> shards;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        shards = new ArrayList<>();
+        for (DataSource shard : dataSource.unwrap(ShardRoutingDataSource.class).getShards()) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(shard);
+            jdbcTemplate.update("delete from users");
+            shards.add(jdbcTemplate);
+        }
+        shards.get(0).update("delete from user_email_directory");
+        tracer.clear();
+    }
+
+    @Test
+    void createUser_StoresRowOnShardEmbeddedInId() {
+        List<UserResponse> created = createUsers(12);
+
+        for (UserResponse user : created) {
+            int shard = ShardedIds.shardOf(user.getId());
+            assertEquals(1, countById(shards.get(shard), user.getId()));
+            for (int other = 0; other < shards.size(); other++) {
+                if (other != shard) {
+                    assertEquals(0, countById(shards.get(other), user.getId()));
+                }
+            }
+        }
+        assertTrue(created.stream().map(user -> ShardedIds.shardOf(user.getId())).distinct().count() > 1);
+        assertTrue(created.stream().allMatch(user -> user.getId() < MAX_SAFE_JSON_INTEGER));
+    }
+
+    @Test
+    void lookups_AreRoutedToOwningShard() {
+        UserResponse created = userService.createUser(new UserRequest("John Doe", "john@example.com"));
+
+        Optional<UserResponse> byId = userService.getUserById(created.getId());
+        Optional<UserResponse> byEmail = userService.getUserByEmail("john@example.com");
+
+        assertTrue(byId.isPresent());
+        assertEquals("john@example.com", byId.get().getEmail());
+        assertTrue(byEmail.isPresent());
+        assertEquals(created.getId(), byEmail.get().getId());
+        assertFalse(userService.getUserByEmail("nobody@example.com").isPresent());
+    }
+
+    @Test
+    void createUser_DuplicateEmailOnAnyShard_ThrowsException() {
+        userService.createUser(new UserRequest("John Doe", "john@example.com"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.createUser(new UserRequest("Other John", "john@example.com")));
+    }
+
+    @Test
+    void updateUser_ChangedEmail_MovesDirectoryEntry() {
+        UserResponse created = userService.createUser(new UserRequest("John Doe", "john@example.com"));
+        userService.createUser(new UserRequest("Jane Doe", "jane@example.com"));
+
+        userService.updateUser(created.getId(), new UserRequest("John Doe", "johnny@example.com"));
+
+        assertFalse(userService.getUserByEmail("john@example.com").isPresent());
+        assertEquals(created.getId(), userService.getUserByEmail("johnny@example.com").orElseThrow().getId());
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.updateUser(created.getId(), new UserRequest("John Doe", "jane@example.com")));
+    }
+
+    @Test
+    void deleteUser_RemovesRowAndDirectoryEntry() {
+        UserResponse created = userService.createUser(new UserRequest("John Doe", "john@example.com"));
+
+        assertTrue(userService.deleteUser(created.getId()));
+
+        assertFalse(userService.getUserById(created.getId()).isPresent());
+        assertFalse(userService.getUserByEmail("john@example.com").isPresent());
+    }
+
+    @Test
+    void getAllUsersAndPages_MergeEveryShard() {
+        List<UserResponse> created = createUsers(10);
+        List<Long> expectedIds = created.stream().map(UserResponse::getId).sorted().toList();
+
+        assertEquals(10, userService.getAllUsers().size());
+
+        List<Long> pagedIds = new ArrayList<>();
+        for (int page = 0; page < 4; page++) {
+            Page<UserResponse> result = userService.getUsers(page, 3);
+            assertEquals(10, result.getTotalElements());
+            result.getContent().forEach(user -> pagedIds.add(user.getId()));
+        }
+        assertEquals(expectedIds, pagedIds);
+
+        List<Long> requested = List.of(expectedIds.get(7), expectedIds.get(2), expectedIds.get(5));
+        assertEquals(requested, userService.getUsersByIds(requested).stream().map(UserResponse::getId).toList());
+    }
+
+    @Test
+    void keysetBatches_MergeShardsInGlobalIdOrder() {
+        List<Long> expectedIds = createUsers(10).stream().map(UserResponse::getId).sorted().toList();
+        assertTrue(expectedIds.stream().map(ShardedIds::shardOf).distinct().count() > 1);
+
+        List<Long> pagedIds = new ArrayList<>();
+        long lastId = Long.MIN_VALUE;
+        while (true) {
+            List<UserEntity> batch = userRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(3));
+            if (batch.isEmpty()) {
+                break;
+            }
+            assertTrue(batch.size() <= 3);
+            batch.forEach(user -> pagedIds.add(user.getId()));
+            lastId = batch.get(batch.size() - 1).getId();
+        }
+
+        assertEquals(expectedIds, pagedIds);
+    }
+
+    @Test
+    void bulkRepositoryMethods_AreSplitAcrossShards() {
+        List<UserEntity> saved = userRepository.saveAll(List.of(
+                new UserEntity("User A", "a@example.com"),
+                new UserEntity("User B", "b@example.com"),
+                new UserEntity("User C", "c@example.com"),
+                new UserEntity("User D", "d@example.com")));
+
+        assertEquals(4, userRepository.count());
+        assertTrue(userRepository.findByEmail("c@example.com").isPresent());
+
+        userRepository.deleteAllByIdInBatch(List.of(saved.get(0).getId(), saved.get(1).getId()));
+        assertEquals(2, userRepository.count());
+        assertFalse(userRepository.existsByEmail("a@example.com"));
+
+        userRepository.deleteAllById(List.of(saved.get(2).getId()));
+        assertFalse(userRepository.existsByEmail("c@example.com"));
+
+        userRepository.deleteAll();
+        assertEquals(0, userRepository.count());
+        assertFalse(userRepository.existsByEmail("d@example.com"));
+    }
+
+    @Test
+    void scatteredAndDirectoryQueries_AreTracedWithServiceCaller() {
+        createUsers(3);
+        tracer.clear();
+
+        userService.getAllUsers();
+        userService.getUserByEmail("user1@example.com");
+
+        List<SlowQueryRecord> records = tracer.getRecords();
+        assertEquals(shards.size(), records.stream()
+                .filter(record -> "UserService.getAllUsers".equals(record.getCaller()))
+                .count());
+        assertTrue(records.stream().anyMatch(record -> record.getSql().contains("user_email_directory")
+                && "UserService.getUserByEmail".equals(record.getCaller())));
+    }
+
+    @Test
+    void routedCallInsideTransactionOnOtherShard_FailsFast() {
+        List<UserResponse> created = createUsers(12);
+        long onShardZero = idOnShard(created, 0);
+        long onShardOne = idOnShard(created, 1);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        assertThrows(IllegalStateException.class,
+                () -> transaction.executeWithoutResult(status -> userRepository.findById(onShardOne)));
+        assertTrue(transaction.execute(status -> userRepository.findById(onShardZero)).isPresent());
+        assertTrue(ShardContext.callOn(1, () -> transaction.execute(status -> userRepository.findById(onShardOne))).isPresent());
+    }
+
+    private static long idOnShard(List<UserResponse> users, int shard) {
+        return users.stream().map(UserResponse::getId).filter(id -> ShardedIds.shardOf(id) == shard).findFirst().orElseThrow();
+    }
+
+    private List<UserResponse> createUsers(int count) {
+        List<UserResponse> created = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            created.add(userService.createUser(new UserRequest("User " + i, "user" + i + "@example.com")));
+        }
+        return created;
+    }
+
+    private static int countById(JdbcTemplate shard, long id) {
+        return shard.queryForObject("select count(*) from users where id = ?", Integer.class, id);
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.java_test_poc.snapshot;
+
+import com.example.java_test_poc.entity.UserEntity;
+import com.example.java_test_poc.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserSnapshotJobTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @TempDir
+    Path snapshotDirectory;
+
+    @Test
+    void writeSnapshot_StreamsAllUsersIntoPublishedFile() throws Exception {
+        // Given
+        UserSnapshotStore store = new UserSnapshotStore(snapshotDirectory.toString(), 2);
+        UserSnapshotJob job = new UserSnapshotJob(userRepository, new ObjectMapper(), store, 2);
+
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(eq(Long.MIN_VALUE), any(Limit.class)))
+                .thenReturn(List.of(user(1L, "João Silva"), user(2L, "Maria Santos")));
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), any(Limit.class)))
+                .thenReturn(List.of(user(3L, "Pedro Costa")));
+
+        // When
+        UserSnapshot snapshot = job.writeSnapshot();
+
+        // Then
+        assertTrue(store.getLatest().isPresent());
+        assertEquals(snapshot.getPath(), store.getLatest().get().getPath());
+        assertEquals(Files.size(snapshot.getPath()), snapshot.getSize());
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(snapshot.getPath()))),
+                snapshot.getDigest());
+
+        List<String> lines;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(snapshot.getPath())), StandardCharsets.UTF_8))) {
+            lines = reader.lines().toList();
+        }
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).contains("\"João Silva\""));
+        assertTrue(lines.get(2).contains("\"id\":3"));
+
+        verify(userRepository).findByIdGreaterThanOrderByIdAsc(eq(2L), any(Limit.class));
+    }
+
+    @Test
+    void writeSnapshot_KeepsOnlyNewestFiles() throws Exception {
+        // Given
+        UserSnapshotStore store = new UserSnapshotStore(snapshotDirectory.toString(), 2);
+        UserSnapshotJob job = new UserSnapshotJob(userRepository, new ObjectMapper(), store, 10);
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(eq(Long.MIN_VALUE), any(Limit.class)))
+                .thenReturn(List.of(user(1L, "João Silva")));
+
+        // When
+        UserSnapshot first = job.writeSnapshot();
+        Thread.sleep(5);
+        job.writeSnapshot();
+        Thread.sleep(5);
+        UserSnapshot third = job.writeSnapshot();
+
+        // Then
+        assertFalse(Files.exists(first.getPath()));
+        assertEquals(third.getPath(), store.getLatest().orElseThrow().getPath());
+        try (var files = Files.list(snapshotDirectory)) {
+            assertEquals(2, files.count());
+        }
+        assertEquals(third.getVersion(), new UserSnapshotStore(snapshotDirectory.toString(), 2).getLatest().orElseThrow().getVersion());
+    }
+
+    @Test
+    void getLatest_PublishedFileDeleted_FallsBackToNewestRemainingFile() throws Exception {
+        // Given
+        UserSnapshotStore store = new UserSnapshotStore(snapshotDirectory.toString(), 2);
+        UserSnapshotJob job = new UserSnapshotJob(userRepository, new ObjectMapper(), store, 10);
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(eq(Long.MIN_VALUE), any(Limit.class)))
+                .thenReturn(List.of(user(1L, "João Silva")));
+        UserSnapshot first = job.writeSnapshot();
+        Thread.sleep(5);
+        UserSnapshot second = job.writeSnapshot();
+
+        // When
+        Files.delete(second.getPath());
+
+        // Then
+        assertEquals(first.getPath(), store.getLatest().orElseThrow().getPath());
+        Files.delete(first.getPath());
+        assertFalse(store.getLatest().isPresent());
+    }
+
+    private static UserEntity user(Long id, String name) {
+        UserEntity user = new UserEntity(name, name.toLowerCase().replace(' ', '.') + "@email.com");
+        user.setId(id);
+        return user;
+    }
+}
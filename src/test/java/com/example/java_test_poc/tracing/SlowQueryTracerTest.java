@@ -0,0 +1,122 @@
+package com.example.java_test_poc.tracing;
+
+import com.example.java_test_poc.dto.SlowQueryRecord;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlowQueryTracerTest {
+
+    @Test
+    void onExecuted_BelowThresholdAndNotSampled_IsIgnored() {
+        // Given
+        SlowQueryTracer tracer = new SlowQueryTracer(200, 0.0, 10, true);
+
+        // When
+        tracer.onExecuted("select 1", new Object[0], 1_000_000);
+
+        // Then
+        assertTrue(tracer.getRecords().isEmpty());
+        assertEquals(1, tracer.getExecutedCount());
+    }
+
+    @Test
+    void onExecuted_AboveThreshold_IsRecorded() {
+        // Given
+        SlowQueryTracer tracer = new SlowQueryTracer(200, 0.0, 10, true);
+
+        // When
+        tracer.onExecuted("select * from users where id=?", new Object[]{1L}, 250_000_000);
+
+        // Then
+        List<SlowQueryRecord> records = tracer.getRecords();
+        assertEquals(1, records.size());
+        assertEquals("select * from users where id=?", records.get(0).getSql());
+        assertEquals(List.of("1"), records.get(0).getParameters());
+        assertEquals(250.0, records.get(0).getElapsedMillis());
+        assertFalse(records.get(0).isSampled());
+    }
+
+    @Test
+    void onExecuted_ParametersNotCaptured_AreMasked() {
+        // Given
+        SlowQueryTracer tracer = new SlowQueryTracer(0, 0.0, 10, false);
+
+        // When
+        tracer.onExecuted("select * from users where email=? and id=?", new Object[]{"joao@email.com", null}, 1);
+
+        // Then
+        assertEquals(List.of("<String>", "null"), tracer.getRecords().get(0).getParameters());
+    }
+
+    @Test
+    void onExecuted_FullSampleRate_RecordsFastStatements() {
+        // Given
+        SlowQueryTracer tracer = new SlowQueryTracer(200, 1.0, 10, true);
+
+        // When
+        tracer.onExecuted("select 1", null, 1_000);
+
+        // Then
+        assertEquals(1, tracer.getRecords().size());
+        assertTrue(tracer.getRecords().get(0).isSampled());
+    }
+
+    @Test
+    void onExecuted_BufferFull_EvictsOldest() {
+        // Given
+        SlowQueryTracer tracer = new SlowQueryTracer(0, 0.0, 2, true);
+
+        // When
+        tracer.onExecuted("select 1", null, 1);
+        tracer.onExecuted("select 2", null, 1);
+        tracer.onExecuted("select 3", null, 1);
+
+        // Then
+        List<SlowQueryRecord> records = tracer.getRecords();
+        assertEquals(2, records.size());
+        assertEquals("select 2", records.get(0).getSql());
+        assertEquals("select 3", records.get(1).getSql());
+        assertEquals(1, tracer.getEvictedCount());
+    }
+
+    @Test
+    void tracingDataSource_RecordsSqlAndBoundParameters() throws Exception {
+        // Given
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:tracing;DB_CLOSE_DELAY=-1");
+        SlowQueryTracer tracer = new SlowQueryTracer(0, 0.0, 10, true);
+        TracingDataSource dataSource = new TracingDataSource(h2, tracer);
+
+        // When
+        try (Connection connection = dataSource.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("create table people (id bigint, name varchar(50))");
+            }
+            try (PreparedStatement statement = connection.prepareStatement("select * from people where id = ? and name = ?")) {
+                statement.setLong(1, 42L);
+                statement.setString(2, "John Doe");
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    assertFalse(resultSet.next());
+                }
+            }
+        }
+
+        // Then
+        List<SlowQueryRecord> records = tracer.getRecords();
+        assertEquals(2, records.size());
+        assertEquals("create table people (id bigint, name varchar(50))", records.get(0).getSql());
+        assertEquals("select * from people where id = ? and name = ?", records.get(1).getSql());
+        assertEquals(List.of("42", "John Doe"), records.get(1).getParameters());
+        assertEquals(2, tracer.getExecutedCount());
+    }
+}